@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class AuthenticatedTokenScopesBenchmark_jmhType extends AuthenticatedTokenScopesBenchmark_jmhType_B3 {
+}
+
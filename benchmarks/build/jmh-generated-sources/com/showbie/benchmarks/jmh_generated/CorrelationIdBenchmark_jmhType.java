@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class CorrelationIdBenchmark_jmhType extends CorrelationIdBenchmark_jmhType_B3 {
+}
+
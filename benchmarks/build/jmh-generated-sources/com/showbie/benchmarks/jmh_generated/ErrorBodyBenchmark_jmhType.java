@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class ErrorBodyBenchmark_jmhType extends ErrorBodyBenchmark_jmhType_B3 {
+}
+
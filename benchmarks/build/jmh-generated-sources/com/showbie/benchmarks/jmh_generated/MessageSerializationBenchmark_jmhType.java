@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class MessageSerializationBenchmark_jmhType extends MessageSerializationBenchmark_jmhType_B3 {
+}
+
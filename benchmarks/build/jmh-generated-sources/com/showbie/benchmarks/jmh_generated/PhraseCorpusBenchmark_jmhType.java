@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class PhraseCorpusBenchmark_jmhType extends PhraseCorpusBenchmark_jmhType_B3 {
+}
+
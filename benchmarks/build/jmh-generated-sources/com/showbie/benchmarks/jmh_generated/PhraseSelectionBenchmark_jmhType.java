@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class PhraseSelectionBenchmark_jmhType extends PhraseSelectionBenchmark_jmhType_B3 {
+}
+
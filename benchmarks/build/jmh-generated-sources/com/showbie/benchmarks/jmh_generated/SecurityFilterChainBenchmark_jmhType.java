@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class SecurityFilterChainBenchmark_jmhType extends SecurityFilterChainBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class TokenGeneratorBenchmark_jmhType extends TokenGeneratorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class TokenParserBenchmark_jmhType extends TokenParserBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class VirtualThreadConcurrencyBenchmark_jmhType extends VirtualThreadConcurrencyBenchmark_jmhType_B3 {
+}
+
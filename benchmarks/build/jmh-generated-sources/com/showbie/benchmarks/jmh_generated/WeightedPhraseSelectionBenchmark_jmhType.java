@@ -0,0 +1,4 @@
+package com.showbie.benchmarks.jmh_generated;
+public class WeightedPhraseSelectionBenchmark_jmhType extends WeightedPhraseSelectionBenchmark_jmhType_B3 {
+}
+
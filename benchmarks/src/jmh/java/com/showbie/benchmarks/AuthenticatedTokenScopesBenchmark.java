@@ -0,0 +1,66 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.security.AuthenticatedTokenScopes;
+import com.showbie.common.http.security.ScopeRegistry;
+import com.showbie.common.http.security.TokenAuthentication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the current request's scopes, as the controllers do, for a
+ * token with both scopes: {@code getScopes} builds the set of scope names,
+ * {@code hasScope} tests a mask resolved once from the {@link ScopeRegistry}.
+ * <p>
+ * Thread scoped, as the security context is held per (request) thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticatedTokenScopesBenchmark {
+    private final ScopeRegistry scopeRegistry = new ScopeRegistry(Arrays.asList("PUBLIC_SERVICE", "PRIVATE_SERVICE"));
+    private final AuthenticatedTokenScopes authenticatedTokenScopes = new AuthenticatedTokenScopes();
+    private final long privateServiceScope = scopeRegistry.maskOf("PRIVATE_SERVICE");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new TokenAuthentication(scopeRegistry,
+                scopeRegistry.maskOf("PUBLIC_SERVICE") | privateServiceScope,
+                System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        SecurityContextHolder.setContext(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Set<String> getScopes() {
+        return authenticatedTokenScopes.getScopes();
+    }
+
+    @Benchmark
+    public boolean hasScope() {
+        return authenticatedTokenScopes.hasScope(privateServiceScope);
+    }
+}
@@ -0,0 +1,49 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.correlation.RandomCorrelationIdGenerator;
+import com.showbie.common.http.correlation.SequentialCorrelationIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlation id generation throughput with 64 threads: {@code legacy} is
+ * {@link UUID#randomUUID()} (a shared {@code SecureRandom}), {@code random} and
+ * {@code sequential} the {@code correlation.id.generator} implementations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class CorrelationIdBenchmark {
+    private final RandomCorrelationIdGenerator randomGenerator = new RandomCorrelationIdGenerator();
+    private final SequentialCorrelationIdGenerator sequentialGenerator = new SequentialCorrelationIdGenerator("");
+
+    @Benchmark
+    public String legacy() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String random() {
+        return randomGenerator.next();
+    }
+
+    @Benchmark
+    public String sequential() {
+        return sequentialGenerator.next();
+    }
+}
@@ -0,0 +1,73 @@
+package com.showbie.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.showbie.common.errors.ErrorBody;
+import com.showbie.common.errors.RequestErrorController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an error response body with one and 32 threads: {@code legacy*} is the
+ * original {@link RequestErrorController} body (a {@code HashMap} of attributes with
+ * a {@link Date}, serialized by Jackson), {@code current*} the prebuilt
+ * {@link ErrorBody} with only the timestamp filled in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorBodyBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ErrorBody notFound = ErrorBody.of(HttpStatus.NOT_FOUND, RequestErrorController.NOT_FOUND_MESSAGE);
+
+    @Benchmark
+    @Threads(1)
+    public byte[] legacySingleThread() throws JsonProcessingException {
+        return legacyBody();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public byte[] legacy32Threads() throws JsonProcessingException {
+        return legacyBody();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] currentSingleThread() {
+        return notFound.render(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public byte[] current32Threads() {
+        return notFound.render(System.currentTimeMillis());
+    }
+
+    private byte[] legacyBody() throws JsonProcessingException {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("timestamp", new Date());
+        attributes.put("status", HttpStatus.NOT_FOUND.value());
+        attributes.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());
+        attributes.put("message", RequestErrorController.NOT_FOUND_MESSAGE);
+        return objectMapper.writeValueAsBytes(attributes);
+    }
+}
@@ -0,0 +1,63 @@
+package com.showbie.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.showbie.common.models.Message;
+import com.showbie.common.models.MessageJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing {@link Message}s: {@code jackson*} is the {@code ObjectMapper}
+ * that Spring MVC would use, {@code messageJson*} the {@link MessageJson} encoder
+ * the services use, for a single message and the two message {@code /message}
+ * response of a client with both scopes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSerializationBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Message publicMessage = new Message("Fortune favours the bold.", "public");
+    private final Message privateMessage = new Message("Don’t \"quote\" me – the patient heart will find its way home.", "private");
+    private final List<Message> messages = Arrays.asList(publicMessage, privateMessage);
+
+    @Benchmark
+    public byte[] jacksonMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(publicMessage);
+    }
+
+    @Benchmark
+    public byte[] messageJsonMessage() {
+        return MessageJson.encode(publicMessage);
+    }
+
+    @Benchmark
+    public byte[] jacksonMessages() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public byte[] messageJsonMessages() {
+        List<byte[]> encoded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            encoded.add(MessageJson.encode(message));
+        }
+        return MessageJson.array(encoded);
+    }
+}
@@ -0,0 +1,103 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.services.MessageService;
+import com.showbie.common.services.PhraseCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory-mapped phrase corpora of 10k, 1M and 10M phrases: {@code open} is the
+ * startup cost of mapping a corpus file, {@code selectJson} the cost of selecting
+ * a random phrase's JSON message. Both should stay flat as the corpus grows; the
+ * heap used by each corpus is printed during setup.
+ * <p>
+ * Corpus files are generated once into {@code java.io.tmpdir} and reused.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhraseCorpusBenchmark {
+    private static final String[] WORDS = {
+            "fortune", "favours", "the", "bold", "patient", "heart", "will", "find", "its", "way", "home"
+    };
+
+    @Param({"10000", "1000000", "10000000"})
+    public int phrases;
+
+    private Path file;
+    private MessageService messageService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Paths.get(System.getProperty("java.io.tmpdir"), "phrases-" + phrases + ".corpus");
+        if (!Files.exists(file)) {
+            PhraseCorpus.write(generate(phrases), file);
+        }
+
+        long heapBefore = usedHeap();
+        messageService = new MessageService(new FileSystemResource(file));
+        long heapAfter = usedHeap();
+        System.out.printf("%n%d phrases: %d MB corpus file, %d KB heap%n",
+                messageService.getPhraseCount(), Files.size(file) >> 20, (heapAfter - heapBefore) >> 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PhraseCorpus open() throws IOException {
+        return PhraseCorpus.map(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] selectJson() {
+        return messageService.getPhraseJson("private");
+    }
+
+    private static Iterator<String> generate(int count) {
+        return new Iterator<String>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public String next() {
+                int i = next++;
+                StringBuilder phrase = new StringBuilder("Phrase ").append(i);
+                for (int w = 0; w < 6; w++) {
+                    phrase.append(' ').append(WORDS[(i * 31 + w * 7) % WORDS.length]);
+                }
+                return phrase.append('.').toString();
+            }
+        };
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,72 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.services.MessageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phrase selection throughput with one and 32 threads: {@code legacy*} is the
+ * original {@link MessageService#getPhrase()} (a new {@link Random} per call,
+ * seeded from a shared atomic, indexing a mutable {@code ArrayList}), {@code current*}
+ * the array and {@code ThreadLocalRandom} based implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhraseSelectionBenchmark {
+    private static final int PHRASE_COUNT = 83; // size of the built-in corpus
+
+    private final MessageService messageService = new MessageService();
+    private final List<String> legacyPhrases = new ArrayList<>();
+
+    {
+        for (int i = 0; i < PHRASE_COUNT; i++) {
+            legacyPhrases.add("Phrase number " + i);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String legacySingleThread() {
+        return legacyGetPhrase();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String legacy32Threads() {
+        return legacyGetPhrase();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String currentSingleThread() {
+        return messageService.getPhrase();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String current32Threads() {
+        return messageService.getPhrase();
+    }
+
+    private String legacyGetPhrase() {
+        Random random = new Random();
+        return legacyPhrases.get(random.nextInt(legacyPhrases.size()));
+    }
+}
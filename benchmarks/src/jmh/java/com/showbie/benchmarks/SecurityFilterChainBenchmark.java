@@ -0,0 +1,124 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.correlation.RandomCorrelationIdGenerator;
+import com.showbie.common.http.security.NonAuthenticatedRequestEntryPoint;
+import com.showbie.common.http.security.ScopeRegistry;
+import com.showbie.common.http.security.TokenGenerator;
+import com.showbie.common.http.security.TokenValidationFilter;
+import com.showbie.common.http.security.VerifiedTokenCache;
+import com.showbie.common.http.security.WebSecurity;
+import com.showbie.common.metrics.StageTimers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.logging.logback.LogbackLoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+
+import javax.servlet.Filter;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the Spring Security filter chain, for the {@code default}
+ * chain ({@code auth.chain.stateless=false}) and the {@code stateless} one (see
+ * {@link WebSecurity}): an {@code authenticated} request with a valid (cached)
+ * bearer token, and an {@code unauthenticated} one answered with a 401.
+ * <p>
+ * Only the security filters run; the request ends at an empty filter chain
+ * where the controller would be.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+    private static final String KEY = "benchmark-signing-key";
+
+    @Param({"default", "stateless"})
+    public String chain;
+
+    private AnnotationConfigApplicationContext context;
+    private Filter securityFilterChain;
+    private String token;
+
+    @Configuration
+    @EnableWebSecurity
+    @Import({WebSecurity.class, TokenValidationFilter.class, NonAuthenticatedRequestEntryPoint.class,
+            ScopeRegistry.class, VerifiedTokenCache.class, RandomCorrelationIdGenerator.class,
+            StageTimers.class})
+    static class SecurityConfig {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // DOC - outside Spring Boot logging defaults to DEBUG, which would dominate the measurement; the
+        //       logging system is created directly because the JMH jar keeps only one spring.factories
+        new LogbackLoggingSystem(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("auth.token.key", KEY);
+        properties.put("auth.token.scopes", "PUBLIC_SERVICE, PRIVATE_SERVICE");
+        properties.put("auth.chain.stateless", Boolean.toString("stateless".equals(chain)));
+        properties.put("auth.reject.log.limit", "0");
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(SecurityConfig.class);
+        context.refresh();
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        token = TokenGenerator.createTokenHS256(KEY, TimeUnit.HOURS.toMillis(1), "PUBLIC_SERVICE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticated() throws IOException, ServletException {
+        MockHttpServletRequest request = request();
+        request.addHeader("Authorization", "Bearer " + token);
+        return filter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse unauthenticated() throws IOException, ServletException {
+        return filter(request());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/message");
+        request.addHeader(TokenValidationFilter.CORRELATION_ID_HEADER, "benchmark");
+        return request;
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityFilterChain.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
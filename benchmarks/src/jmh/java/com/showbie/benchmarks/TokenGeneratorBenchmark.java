@@ -0,0 +1,39 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.security.TokenGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of minting a token with {@link TokenGenerator#createTokenHS256(String, long, String...)},
+ * as public-service does for its private-service calls, with one and two scopes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenGeneratorBenchmark {
+    private static final String KEY = "benchmark-signing-key";
+    private static final long LIFETIME = TimeUnit.SECONDS.toMillis(30);
+
+    @Benchmark
+    public String oneScope() {
+        return TokenGenerator.createTokenHS256(KEY, LIFETIME, "PRIVATE_SERVICE");
+    }
+
+    @Benchmark
+    public String twoScopes() {
+        return TokenGenerator.createTokenHS256(KEY, LIFETIME, "PUBLIC_SERVICE", "PRIVATE_SERVICE");
+    }
+}
@@ -0,0 +1,65 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.security.Hs256TokenVerifier;
+import com.showbie.common.http.security.TokenGenerator;
+import com.showbie.common.http.security.TokenParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing a bearer token with a shared {@link Hs256TokenVerifier}, as
+ * the token validation filter does on a cache miss: a {@code valid} token, an
+ * {@code expired} one and one with a {@code badSignature}. {@code validNewVerifier}
+ * also prepares the verification key, as {@link TokenParser}'s key constructor does.
+ * <p>
+ * The rejected tokens include the warning the verifier logs for each of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenParserBenchmark {
+    private static final String KEY = "benchmark-signing-key";
+    private static final List<String> SCOPES = Arrays.asList("PUBLIC_SERVICE", "PRIVATE_SERVICE");
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final Hs256TokenVerifier verifier = new Hs256TokenVerifier(KEY, SCOPES);
+    private final String validToken = TokenGenerator.createTokenHS256(KEY, HOUR, "PUBLIC_SERVICE");
+    private final String expiredToken = TokenGenerator.createTokenHS256(KEY,
+            new Date(System.currentTimeMillis() - 2 * HOUR), new Date(System.currentTimeMillis() - HOUR), "PUBLIC_SERVICE");
+    private final String badSignatureToken = TokenGenerator.createTokenHS256("another-signing-key", HOUR, "PUBLIC_SERVICE");
+
+    @Benchmark
+    public TokenParser valid() {
+        return new TokenParser(verifier, validToken);
+    }
+
+    @Benchmark
+    public TokenParser expired() {
+        return new TokenParser(verifier, expiredToken);
+    }
+
+    @Benchmark
+    public TokenParser badSignature() {
+        return new TokenParser(verifier, badSignatureToken);
+    }
+
+    @Benchmark
+    public TokenParser validNewVerifier() {
+        return new TokenParser(KEY, SCOPES, validToken);
+    }
+}
@@ -0,0 +1,89 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.http.correlation.MdcTaskDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many blocking requests a platform thread pool and virtual threads
+ * can have in flight at once.
+ * <p>
+ * Each benchmark invocation submits a burst of {@code requests} tasks that each
+ * block for {@code blockingMillis} (standing in for a private-service call parked
+ * in socket I/O) and waits for all of them. The platform pool is sized like
+ * Tomcat's default worker pool, so it drains the burst in
+ * {@code ceil(requests / 200)} rounds; virtual threads unmount while blocked and
+ * drain it in roughly one. Tasks are wrapped by the {@link MdcTaskDecorator}, as
+ * private-service calls are, so correlation id propagation is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadConcurrencyBenchmark {
+    private static final int PLATFORM_POOL_SIZE = 200; // server.tomcat.threads.max default
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"200", "1000", "5000"})
+    public int requests;
+
+    @Param({"20"})
+    public long blockingMillis;
+
+    private final MdcTaskDecorator taskDecorator = new MdcTaskDecorator();
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        MDC.put("correlationId", "benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        MDC.clear();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        Runnable request = taskDecorator.decorate(() -> {
+            try {
+                Thread.sleep(blockingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        });
+        for (int i = 0; i < requests; i++) {
+            executor.execute(request);
+        }
+        done.await();
+    }
+}
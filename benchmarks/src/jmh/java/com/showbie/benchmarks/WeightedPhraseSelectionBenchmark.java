@@ -0,0 +1,85 @@
+package com.showbie.benchmarks;
+
+import com.showbie.common.services.MessageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted against uniform phrase selection for corpora of 83 (the built-in
+ * corpus) to 1M phrases: {@code uniform} and {@code weighted} select through
+ * {@link MessageService#getPhraseJson(String)} (the weighted corpus samples its
+ * alias table), {@code linearScan} is the naive cumulative weight scan an alias
+ * table replaces. Alias sampling should stay close to uniform selection at
+ * every size (at most one more cache miss, for the table), while the scan
+ * grows with the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeightedPhraseSelectionBenchmark {
+    @Param({"83", "10000", "1000000"})
+    public int phrases;
+
+    private MessageService uniform;
+    private MessageService weighted;
+    private double[] cumulativeWeights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder uniformText = new StringBuilder();
+        StringBuilder weightedText = new StringBuilder();
+        cumulativeWeights = new double[phrases];
+        double total = 0;
+        for (int i = 0; i < phrases; i++) {
+            int weight = 1 + i % 10;
+            total += weight;
+            cumulativeWeights[i] = total;
+            uniformText.append("Phrase number ").append(i).append('\n');
+            weightedText.append("Phrase number ").append(i).append('\t').append(weight).append('\n');
+        }
+        uniform = new MessageService(resource(uniformText));
+        weighted = new MessageService(resource(weightedText));
+    }
+
+    @Benchmark
+    public byte[] uniform() {
+        return uniform.getPhraseJson("private");
+    }
+
+    @Benchmark
+    public byte[] weighted() {
+        return weighted.getPhraseJson("private");
+    }
+
+    @Benchmark
+    public int linearScan() {
+        double target = ThreadLocalRandom.current().nextDouble(cumulativeWeights[phrases - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= target) {
+            index++;
+        }
+        return index;
+    }
+
+    private static ByteArrayResource resource(StringBuilder text) {
+        return new ByteArrayResource(text.toString().getBytes(StandardCharsets.UTF_8), "phrases.txt");
+    }
+}
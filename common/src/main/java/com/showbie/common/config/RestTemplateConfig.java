@@ -1,6 +1,13 @@
 package com.showbie.common.config;
 
+import com.showbie.common.http.client.AbortableRequestFactory;
 import com.showbie.common.http.correlation.RestTemplateCorrelationInterceptor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -9,6 +16,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Common RestTemplate configuration.
@@ -19,6 +27,23 @@ public class RestTemplateConfig {
     @Value("${http.timeout:5000}")
     private long requestTimeout;
 
+    @Value("${http.pool.max-total:200}")
+    private int poolMaxTotal;
+
+    @Value("${http.pool.max-per-route:50}")
+    private int poolMaxPerRoute;
+
+    @Value("${http.pool.acquire-timeout:1000}")
+    private int poolAcquireTimeout;
+
+    // DOC - kept below Tomcat's default keep-alive timeout (20s) so that we
+    //       close idle connections before the server does
+    @Value("${http.pool.idle-timeout:15000}")
+    private long poolIdleTimeout;
+
+    @Value("${http.pool.validate-after-inactivity:2000}")
+    private int poolValidateAfterInactivity;
+
     private RestTemplateCorrelationInterceptor restTemplateCorrelationInterceptor;
 
     @Autowired
@@ -27,13 +52,66 @@ public class RestTemplateConfig {
     }
 
     /**
-     * RestTemplate builder. Configures the request timeout and injects an interceptor to
-     * handle correlation ids.
+     * Connection pool shared by all outgoing requests. Connections are kept alive
+     * and reused per route (host and port) instead of being opened per request.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolMaxTotal);
+        connectionManager.setDefaultMaxPerRoute(poolMaxPerRoute);
+        connectionManager.setValidateAfterInactivity(poolValidateAfterInactivity);
+        return connectionManager;
+    }
+
+    /**
+     * Pooled http client. Idle connections are evicted in the background; waiting
+     * for a free pooled connection is bounded by the acquire timeout, separately
+     * from the connect and read timeouts.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(poolAcquireTimeout)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(poolIdleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Connection pool utilization metrics (http.client.pool.*).
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return registry -> {
+            Gauge.builder("http.client.pool.leased", connectionManager, m -> m.getTotalStats().getLeased())
+                    .description("Pooled connections currently in use")
+                    .register(registry);
+            Gauge.builder("http.client.pool.available", connectionManager, m -> m.getTotalStats().getAvailable())
+                    .description("Idle pooled connections available for reuse")
+                    .register(registry);
+            Gauge.builder("http.client.pool.pending", connectionManager, m -> m.getTotalStats().getPending())
+                    .description("Requests waiting for a pooled connection")
+                    .register(registry);
+            Gauge.builder("http.client.pool.max", connectionManager, m -> m.getTotalStats().getMax())
+                    .description("Maximum number of pooled connections")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * RestTemplate builder. Configures the pooled http client (whose requests can
+     * be aborted, see {@link com.showbie.common.http.client.AbortableRequest}) and
+     * request timeout, and injects an interceptor to handle correlation ids.
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient) {
 
         return builder
+                .requestFactory(() -> new AbortableRequestFactory(httpClient))
                 .setConnectTimeout(Duration.ofMillis(requestTimeout))
                 .setReadTimeout(Duration.ofMillis(requestTimeout))
                 .additionalInterceptors(restTemplateCorrelationInterceptor)
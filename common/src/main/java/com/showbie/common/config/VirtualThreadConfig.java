@@ -0,0 +1,38 @@
+package com.showbie.common.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in virtual thread execution mode ({@code spring.threads.virtual.enabled=true}).
+ * <p>
+ * Tomcat hands each request to a new virtual thread instead of a worker from its
+ * bounded platform thread pool, so requests parked on blocking I/O no longer hold
+ * a worker. Concurrency is then limited by {@code server.tomcat.max-connections}
+ * and, for outgoing requests, by the pooled http client (see {@link RestTemplateConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Replaces Tomcat's request worker pool with a virtual thread per request.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            logger.info("Handling requests on virtual threads");
+            protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("http-virtual-", 0).factory()));
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.showbie.common.errors;
+
+import com.showbie.common.models.MessageJson;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Prebuilt JSON error response body, byte-identical to the common error
+ * attributes (see {@link RequestErrorController}) as Jackson writes them:
+ * <pre>
+ *   {"error":"Unauthorized","message":"...","timestamp":"2021-03-01T12:00:00.000+00:00","status":401}
+ * </pre>
+ * Everything but the timestamp is encoded once; the timestamp is filled in per
+ * response, formatting only the milliseconds unless the second has changed.
+ */
+public final class ErrorBody {
+    private static final DateTimeFormatter SECONDS =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.").withZone(ZoneOffset.UTC);
+    private static final byte[] OFFSET = "+00:00".getBytes(StandardCharsets.US_ASCII);
+    private static final int SECONDS_LENGTH = 20;
+    private static final int TIMESTAMP_LENGTH = SECONDS_LENGTH + 3 + OFFSET.length;
+
+    private static volatile Second cachedSecond = new Second(Long.MIN_VALUE, new byte[SECONDS_LENGTH]);
+
+    private final int status;
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    private ErrorBody(HttpStatus status, String message) {
+        this.status = status.value();
+        // DOC - HashMap iteration order of the error attribute keys
+        this.prefix = ("{\"error\":\"" + new String(MessageJson.escape(status.getReasonPhrase()), StandardCharsets.UTF_8)
+                + "\",\"message\":\"" + new String(MessageJson.escape(message), StandardCharsets.UTF_8)
+                + "\",\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+        this.suffix = ("\",\"status\":" + status.value() + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param status  Response status.
+     * @param message Client message.
+     */
+    public static ErrorBody of(HttpStatus status, String message) {
+        return new ErrorBody(status, message);
+    }
+
+    /**
+     * @return HTTP status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @param now Time of the error in milliseconds.
+     * @return UTF-8 JSON body.
+     */
+    public byte[] render(long now) {
+        byte[] body = new byte[prefix.length + TIMESTAMP_LENGTH + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        writeTimestamp(now, body, prefix.length);
+        System.arraycopy(suffix, 0, body, prefix.length + TIMESTAMP_LENGTH, suffix.length);
+        return body;
+    }
+
+    /**
+     * Write the error as the (uncommitted) response, without an error dispatch.
+     */
+    public void write(HttpServletResponse response, long now) throws IOException {
+        byte[] body = render(now);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void writeTimestamp(long now, byte[] target, int position) {
+        long epochSecond = Math.floorDiv(now, 1000);
+        Second second = cachedSecond;
+        if (second.epochSecond != epochSecond) {
+            second = new Second(epochSecond,
+                    SECONDS.format(Instant.ofEpochSecond(epochSecond)).getBytes(StandardCharsets.US_ASCII));
+            cachedSecond = second;
+        }
+        System.arraycopy(second.text, 0, target, position, SECONDS_LENGTH);
+        int millis = (int) Math.floorMod(now, 1000);
+        target[position + SECONDS_LENGTH] = (byte) ('0' + millis / 100);
+        target[position + SECONDS_LENGTH + 1] = (byte) ('0' + millis / 10 % 10);
+        target[position + SECONDS_LENGTH + 2] = (byte) ('0' + millis % 10);
+        System.arraycopy(OFFSET, 0, target, position + SECONDS_LENGTH + 3, OFFSET.length);
+    }
+
+    /**
+     * The formatted timestamp, up to and including the seconds' ".", of one second.
+     */
+    private static final class Second {
+        private final long epochSecond;
+        private final byte[] text;
+
+        private Second(long epochSecond, byte[] text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
@@ -4,22 +4,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.web.servlet.error.AbstractErrorController;
 import org.springframework.boot.web.servlet.error.ErrorAttributes;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Centralized error handling for all requests (error responses and controller exceptions)
  *
  * Attempts to transform errors into a common response body for clients.
+ * <p>
+ * Bodies are rendered from {@link ErrorBody} templates prepared at startup, so
+ * an error response costs a copy and a timestamp rather than a map, a
+ * {@code Date} and a Jackson serialization.
  */
 @RestController
 @ControllerAdvice
@@ -27,39 +30,53 @@ public class RequestErrorController extends AbstractErrorController {
 
     Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final String notFoundMessage = "Oops, we can't seem to find what you are looking for";
-    private final String internalServerErrorMessage = "Sorry about that, something went wrong on our end";
-    private final String unauthenticatedMessage = "Authentication is required, please include a valid token";
+    public static final String NOT_FOUND_MESSAGE = "Oops, we can't seem to find what you are looking for";
+    public static final String INTERNAL_SERVER_ERROR_MESSAGE = "Sorry about that, something went wrong on our end";
+    public static final String UNAUTHENTICATED_MESSAGE = "Authentication is required, please include a valid token";
+
+    private final ErrorBody unauthenticated = ErrorBody.of(HttpStatus.UNAUTHORIZED, UNAUTHENTICATED_MESSAGE);
+    private final ErrorBody notFound = ErrorBody.of(HttpStatus.NOT_FOUND, NOT_FOUND_MESSAGE);
+    private final ErrorBody internalServerError = ErrorBody.of(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR_MESSAGE);
+
+    // DOC - keyed by status and reason, both of which come from code, so this stays small
+    private final Map<String, ErrorBody> rejections = new ConcurrentHashMap<>();
 
     public RequestErrorController(final ErrorAttributes errorAttributes) {
         super(errorAttributes, Collections.emptyList());
     }
 
-    @Override
-    public String getErrorPath() {
-        return "/error";
-    }
-
     /**
      * Transforms all errors sent to the "/error" resource into a common client response (failed
-     * authentications etc). Any unknown http statues result in an internal server error.
+     * authentications etc). Any unknown http statues result in an internal server error body;
+     * the response keeps the error's own status.
      */
-    @ResponseBody
     @RequestMapping(value = "/error", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Map<String, Object> handleError(HttpServletRequest request) {
+    public ResponseEntity<byte[]> handleError(HttpServletRequest request) {
         HttpStatus status = this.getStatus(request);
-        Map<String, Object> attributes = null;
+        ErrorBody body;
         switch (status) {
             case UNAUTHORIZED:
-                attributes = buildAttributes(new Date(), status, unauthenticatedMessage);
+                body = unauthenticated;
                 break;
             case NOT_FOUND:
-                attributes = buildAttributes(new Date(), status, notFoundMessage);
+                body = notFound;
                 break;
             default:
-                attributes = buildAttributes(new Date(), HttpStatus.INTERNAL_SERVER_ERROR, internalServerErrorMessage);
+                body = internalServerError;
         }
-        return attributes;
+        return response(status, body);
+    }
+
+    /**
+     * Transforms controller exceptions that carry their own http status (e.g. a
+     * rejected request) into a common client response with that status.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    protected ResponseEntity<byte[]> handleResponseStatusException(ResponseStatusException ex) {
+        logger.warn("Service rejected a request: {}", ex.getMessage());
+        HttpStatus status = ex.getStatus();
+        String reason = ex.getReason() != null ? ex.getReason() : status.getReasonPhrase();
+        return response(status, rejections.computeIfAbsent(status.value() + " " + reason, key -> ErrorBody.of(status, reason)));
     }
 
     /**
@@ -67,24 +84,15 @@ public class RequestErrorController extends AbstractErrorController {
      * exceptions are logged and returned to the client as internal server errors.
      */
     @ExceptionHandler(RuntimeException.class)
-    protected ResponseEntity<Object> handleException(RuntimeException ex) {
+    protected ResponseEntity<byte[]> handleException(RuntimeException ex) {
         logger.error("Service generated an exception: {}", ex.getMessage());
-        HttpHeaders headers = new HttpHeaders();
-        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
-        Map<String, Object> attributes = buildAttributes(new Date(), status, internalServerErrorMessage);
-        return new ResponseEntity<>(attributes, headers, status);
+        return response(HttpStatus.INTERNAL_SERVER_ERROR, internalServerError);
     }
 
-    /**
-     * Builds a common set of error attributes to return to clients.
-     */
-    private Map<String, Object> buildAttributes(Date timestamp, HttpStatus status, String message) {
-        Map<String, Object> attributes = new HashMap<>();
-        attributes.put("timestamp", timestamp);
-        attributes.put("status", status.value());
-        attributes.put("error", status.getReasonPhrase());
-        attributes.put("message", message);
-        return attributes;
+    private static ResponseEntity<byte[]> response(HttpStatus status, ErrorBody body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.render(System.currentTimeMillis()));
     }
 
 }
@@ -0,0 +1,79 @@
+package com.showbie.common.http.client;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets another thread abort the http request a thread is making through the
+ * shared {@code RestTemplate} (see {@link com.showbie.common.config.RestTemplateConfig}),
+ * e.g. to cancel the slower of two hedged requests. Aborting closes the
+ * request's connection, so the blocked call fails at once instead of running
+ * to the end of its read timeout.
+ * <pre>
+ *   AbortableRequest request = new AbortableRequest();
+ *   ... request.run(() -> restTemplate.exchange(...)) ...
+ *   ... elsewhere: request.abort();
+ * </pre>
+ */
+public final class AbortableRequest {
+    private static final ThreadLocal<AbortableRequest> CURRENT = new ThreadLocal<>();
+
+    private volatile HttpUriRequest request;
+    private volatile boolean aborted;
+
+    /**
+     * Make the http requests of {@code call} abortable through this.
+     *
+     * @param call Makes (at most) one http request on the calling thread.
+     * @return The call's result.
+     */
+    public <T> T run(Supplier<T> call) {
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Abort the request: now if it is in flight, as soon as it starts otherwise.
+     */
+    public void abort() {
+        aborted = true;
+        HttpUriRequest current = request;
+        if (current != null) {
+            current.abort();
+        }
+    }
+
+    /**
+     * @return Whether {@link #abort()} has been called.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return The abortable request {@link #run} by the calling thread, or {@code null}.
+     */
+    public static AbortableRequest current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Called by the request factory as each http request is created.
+     */
+    static void created(HttpUriRequest request) {
+        AbortableRequest abortable = CURRENT.get();
+        if (abortable != null) {
+            // DOC - publish before checking, abort() sets the flag before reading
+            //       the request: one of the two sees the other
+            abortable.request = request;
+            if (abortable.aborted) {
+                request.abort();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.showbie.common.http.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+/**
+ * Request factory whose requests can be aborted from another thread, see
+ * {@link AbortableRequest}.
+ */
+public class AbortableRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    public AbortableRequestFactory(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    @Override
+    protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+        AbortableRequest.created(request);
+        return request;
+    }
+}
@@ -0,0 +1,18 @@
+package com.showbie.common.http.correlation;
+
+/**
+ * Generates correlation ids for requests that arrive without one (see
+ * {@link com.showbie.common.http.security.TokenValidationFilter}).
+ * <p>
+ * Ids only need to be unique across the services' logs, not unpredictable.
+ * Select an implementation with {@code correlation.id.generator}: {@code random}
+ * (the default, see {@link RandomCorrelationIdGenerator}) or {@code sequential}
+ * (see {@link SequentialCorrelationIdGenerator}).
+ */
+public interface CorrelationIdGenerator {
+
+    /**
+     * @return A new correlation id; safe to call from any thread.
+     */
+    String next();
+}
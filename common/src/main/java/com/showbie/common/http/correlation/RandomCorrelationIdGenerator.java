@@ -0,0 +1,29 @@
+package com.showbie.common.http.correlation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random (version 4) UUID correlation ids, e.g. {@code 3b241101-e2bb-4255-8caf-4136c566a962}.
+ * <p>
+ * {@link UUID#randomUUID()} draws from a shared {@code SecureRandom} that contends
+ * under load (and pins virtual threads while it reads the entropy source); this
+ * draws the 122 random bits from {@link ThreadLocalRandom} instead. The JDK formats
+ * a {@link UUID} straight into the string's bytes, which measured faster than doing
+ * so here (see {@code CorrelationIdBenchmark}).
+ */
+@Component
+@ConditionalOnProperty(name = "correlation.id.generator", havingValue = "random", matchIfMissing = true)
+public class RandomCorrelationIdGenerator implements CorrelationIdGenerator {
+
+    @Override
+    public String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xf000L) | 0x4000L; // version 4
+        long leastSigBits = (random.nextLong() & ~(0xcL << 60)) | (0x8L << 60); // IETF variant
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.showbie.common.http.correlation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correlation ids made of a per-node prefix and a counter, e.g. {@code 5f0c1e7a-0005d1c2a3f40001}.
+ * <p>
+ * Cheaper than random ids (one atomic increment per id, formatted straight into
+ * the string's bytes) and ordered by issue time within a node. The counter starts
+ * at the startup time in microseconds, so a restarted node that reuses its prefix
+ * ({@code correlation.id.node}) only reissues ids if it sustained more than a
+ * million per second.
+ */
+@Component
+@ConditionalOnProperty(name = "correlation.id.generator", havingValue = "sequential")
+public class SequentialCorrelationIdGenerator implements CorrelationIdGenerator {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] prefix;
+    private final AtomicLong counter = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    /**
+     * @param node Node prefix; a random one is chosen at startup when empty.
+     */
+    public SequentialCorrelationIdGenerator(@Value("${correlation.id.node:}") String node) {
+        if (!StringUtils.hasLength(node)) {
+            byte[] random = new byte[8];
+            hex(ThreadLocalRandom.current().nextInt(), 8, random, 0);
+            node = new String(random, StandardCharsets.US_ASCII);
+        }
+        this.prefix = (node + "-").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String next() {
+        long sequence = counter.getAndIncrement();
+        byte[] id = new byte[prefix.length + 16];
+        System.arraycopy(prefix, 0, id, 0, prefix.length);
+        hex(sequence, 16, id, prefix.length);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the low {@code digits} nibbles of {@code value} as lowercase hex.
+     */
+    private static void hex(long value, int digits, byte[] target, int position) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            target[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+}
@@ -11,8 +11,11 @@ import java.util.stream.Collectors;
 
 /**
  * Convenience service to read scopes for the currently authenticated request.
- * Reads the token scopes added to the SecurityContext's authorities as stored
+ * Reads the token scopes added to the SecurityContext's authentication as stored
  * by the {@link TokenValidationFilter}.
+ * <p>
+ * Prefer {@link #hasScope(long)} with a mask resolved once from the
+ * {@link ScopeRegistry}: it is a single bit test with no allocation.
  */
 @Service
 public class AuthenticatedTokenScopes {
@@ -22,7 +25,11 @@ public class AuthenticatedTokenScopes {
      */
     public Set<String> getScopes() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication.isAuthenticated()) {
+        if (authentication instanceof TokenAuthentication && authentication.isAuthenticated()) {
+            TokenAuthentication tokenAuthentication = (TokenAuthentication) authentication;
+            return tokenAuthentication.getScopeRegistry().nameSetOf(tokenAuthentication.getScopeMask());
+        }
+        if (authentication != null && authentication.isAuthenticated()) {
             return authentication.getAuthorities()
                     .stream()
                     .map(GrantedAuthority::getAuthority)
@@ -32,4 +39,42 @@ public class AuthenticatedTokenScopes {
         // not authenticated -- no scopes
         return Collections.emptySet();
     }
+
+    /**
+     * Get the token scopes for the current authenticated request.
+     * @return {@link ScopeRegistry} bitmask of scopes; is {@code 0} if not authenticated.
+     */
+    public long getScopeMask() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof TokenAuthentication && authentication.isAuthenticated()) {
+            return ((TokenAuthentication) authentication).getScopeMask();
+        }
+
+        // not authenticated -- no scopes
+        return 0;
+    }
+
+    /**
+     * Get the expiry of the current authenticated request's token, for work
+     * (such as streaming) that outlives the request's authentication.
+     * @return Expiry time in milliseconds; is {@code 0} if not authenticated.
+     */
+    public long getExpiresAt() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof TokenAuthentication && authentication.isAuthenticated()) {
+            return ((TokenAuthentication) authentication).getExpiresAt();
+        }
+
+        // not authenticated -- already expired
+        return 0;
+    }
+
+    /**
+     * Does the current authenticated request have a scope?
+     * @param scopeMask Scope mask from {@link ScopeRegistry#maskOf(String)}.
+     * @return {@code true} if authenticated with (any of) the scope(s).
+     */
+    public boolean hasScope(long scopeMask) {
+        return (getScopeMask() & scopeMask) != 0;
+    }
 }
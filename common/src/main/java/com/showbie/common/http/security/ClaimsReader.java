@@ -0,0 +1,440 @@
+package com.showbie.common.http.security;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming JSON reader used by the {@link Hs256TokenVerifier} to pull
+ * the few claims it needs straight out of a decoded JWT header or payload.
+ * <p>
+ * This is deliberately not a general purpose parser: it works on a byte range,
+ * never builds a tree and only materializes a {@code String} for escaped string
+ * values. Object member names are compared as raw bytes, so escaped member names
+ * never match a known claim. Instances are reusable but not thread safe.
+ */
+final class ClaimsReader {
+    /**
+     * Thrown for any malformed or unsupported input. Shared and stackless as
+     * malformed tokens are an expected (and potentially frequent) occurrence.
+     */
+    static final class MalformedClaimsException extends Exception {
+        private MalformedClaimsException() {
+            super("malformed claims", null, false, false);
+        }
+    }
+
+    static final MalformedClaimsException MALFORMED = new MalformedClaimsException();
+
+    private static final int MAX_DEPTH = 16;
+
+    /* DOC - numbers are timestamps in seconds: 12 digits reach past the year 30000
+     *       and leave room for the conversion to milliseconds not to overflow.
+     */
+    private static final int MAX_DIGITS = 12;
+    private static final byte[][] NO_NAMES = new byte[0][];
+
+    private byte[] buf;
+    private int pos;
+    private int end;
+
+    /* DOC - set when an object or array has just been opened, so that the
+     *       first member or element must not be preceded by a comma.
+     */
+    private boolean first;
+
+    /**
+     * Read from {@code buf[offset, end)}.
+     */
+    void reset(byte[] buf, int offset, int end) {
+        this.buf = buf;
+        this.pos = offset;
+        this.end = end;
+        this.first = false;
+    }
+
+    /**
+     * Consume the opening brace of an object.
+     */
+    void beginObject() throws MalformedClaimsException {
+        expectAfterWhitespace('{');
+        first = true;
+    }
+
+    /**
+     * Advance to the next member of the current object and consume its name.
+     *
+     * @param names Known member names (as UTF-8 bytes).
+     * @return Index of the matching known name; {@code -1} for an unknown name
+     * (its value must still be read or skipped); {@code -2} at the end of the object.
+     */
+    int nextName(byte[][] names) throws MalformedClaimsException {
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            first = false;
+            return -2;
+        }
+        separator();
+
+        int start = stringStart();
+        int stop = skipString();
+        expectAfterWhitespace(':');
+
+        int length = stop - start;
+        for (int i = 0; i < names.length; i++) {
+            if (rangeEquals(start, length, names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Is the next value a string? Consumes nothing.
+     */
+    boolean nextIsString() throws MalformedClaimsException {
+        skipWhitespace();
+        return peek() == '"';
+    }
+
+    /**
+     * Read a string value.
+     */
+    String nextString() throws MalformedClaimsException {
+        skipWhitespace();
+        int start = stringStart();
+        int stop = skipString();
+        for (int i = start; i < stop; i++) {
+            if (buf[i] == '\\') {
+                return unescape(start, stop);
+            }
+        }
+        return new String(buf, start, stop - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Is the next value {@code null}? Consumes it if so.
+     */
+    boolean nextIsNull() throws MalformedClaimsException {
+        skipWhitespace();
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read a numeric value of at most {@value #MAX_DIGITS} integer digits,
+     * truncating any fractional part.
+     */
+    long nextLong() throws MalformedClaimsException {
+        skipWhitespace();
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            pos++;
+        }
+
+        int digits = 0;
+        long value = 0;
+        while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+            if (++digits > MAX_DIGITS) {
+                throw MALFORMED; // far outside any sensible timestamp
+            }
+            value = value * 10 + (buf[pos++] - '0');
+        }
+        if (digits == 0) {
+            throw MALFORMED;
+        }
+
+        if (pos < end && buf[pos] == '.') {
+            pos++;
+            int fraction = pos;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                pos++;
+            }
+            if (pos == fraction) {
+                throw MALFORMED;
+            }
+        }
+        if (pos < end && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            throw MALFORMED; // exponent notation is not produced for timestamps
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Consume the opening bracket of an array.
+     */
+    void beginArray() throws MalformedClaimsException {
+        expectAfterWhitespace('[');
+        first = true;
+    }
+
+    /**
+     * Advance to the next element of the current array.
+     *
+     * @return {@code false} at the end of the array (which is consumed).
+     */
+    boolean nextElement() throws MalformedClaimsException {
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            first = false;
+            return false;
+        }
+        separator();
+        return true;
+    }
+
+    /**
+     * Read a string value and match it against known values without decoding it.
+     *
+     * @param values Known values (as UTF-8 bytes).
+     * @return Index of the matching value, or {@code -1} if it is not known.
+     */
+    int nextStringIndex(byte[][] values) throws MalformedClaimsException {
+        skipWhitespace();
+        int start = stringStart();
+        int stop = skipString();
+        int length = stop - start;
+
+        boolean escaped = false;
+        for (int i = start; i < stop; i++) {
+            if (buf[i] == '\\') {
+                escaped = true;
+                break;
+            }
+        }
+
+        if (!escaped) {
+            for (int i = 0; i < values.length; i++) {
+                if (rangeEquals(start, length, values[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // slow path -- decode the escapes and compare as strings
+        String decoded = unescape(start, stop);
+        for (int i = 0; i < values.length; i++) {
+            if (decoded.equals(new String(values[i], StandardCharsets.UTF_8))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skip over the next value of any type.
+     */
+    void skipValue() throws MalformedClaimsException {
+        skipValue(0);
+    }
+
+    /**
+     * Ensure nothing but whitespace follows the value just read.
+     */
+    void endDocument() throws MalformedClaimsException {
+        skipWhitespace();
+        if (pos != end) {
+            throw MALFORMED;
+        }
+    }
+
+    private void skipValue(int depth) throws MalformedClaimsException {
+        if (depth > MAX_DEPTH) {
+            throw MALFORMED;
+        }
+        skipWhitespace();
+        switch (peek()) {
+            case '{':
+                beginObject();
+                while (nextName(NO_NAMES) != -2) {
+                    skipValue(depth + 1);
+                }
+                break;
+            case '[':
+                beginArray();
+                while (nextElement()) {
+                    skipValue(depth + 1);
+                }
+                break;
+            case '"':
+                stringStart();
+                skipString();
+                break;
+            case 't':
+                literal("true");
+                break;
+            case 'f':
+                literal("false");
+                break;
+            case 'n':
+                literal("null");
+                break;
+            default:
+                skipNumber();
+                break;
+        }
+    }
+
+    private void skipNumber() throws MalformedClaimsException {
+        int start = pos;
+        while (pos < end) {
+            byte c = buf[pos];
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw MALFORMED;
+        }
+    }
+
+    private int stringStart() throws MalformedClaimsException {
+        if (peek() != '"') {
+            throw MALFORMED;
+        }
+        return ++pos;
+    }
+
+    /**
+     * Skip to the closing quote of a string whose opening quote was consumed.
+     *
+     * @return Position of the closing quote.
+     */
+    private int skipString() throws MalformedClaimsException {
+        while (pos < end) {
+            byte c = buf[pos];
+            if (c == '"') {
+                return pos++;
+            }
+            pos += c == '\\' ? 2 : 1;
+        }
+        throw MALFORMED;
+    }
+
+    private String unescape(int start, int stop) throws MalformedClaimsException {
+        StringBuilder builder = new StringBuilder(stop - start);
+        int i = start;
+        while (i < stop) {
+            int runStart = i;
+            while (i < stop && buf[i] != '\\') {
+                i++;
+            }
+            builder.append(new String(buf, runStart, i - runStart, StandardCharsets.UTF_8));
+            if (i == stop) {
+                break;
+            }
+            if (i + 1 >= stop) {
+                throw MALFORMED;
+            }
+            byte c = buf[i + 1];
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append((char) c);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (i + 6 > stop) {
+                        throw MALFORMED;
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(new String(buf, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException e) {
+                        throw MALFORMED;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw MALFORMED;
+            }
+            i += 2;
+        }
+        return builder.toString();
+    }
+
+    private void literal(String literal) throws MalformedClaimsException {
+        int length = literal.length();
+        if (pos + length > end) {
+            throw MALFORMED;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[pos + i] != literal.charAt(i)) {
+                throw MALFORMED;
+            }
+        }
+        pos += length;
+    }
+
+    private boolean rangeEquals(int start, int length, byte[] value) {
+        if (length != value.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[start + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Consume the comma between members or elements (none before the first).
+     */
+    private void separator() throws MalformedClaimsException {
+        if (first) {
+            first = false;
+            return;
+        }
+        if (peek() != ',') {
+            throw MALFORMED;
+        }
+        pos++;
+        skipWhitespace();
+    }
+
+    private void expectAfterWhitespace(char c) throws MalformedClaimsException {
+        skipWhitespace();
+        if (peek() != c) {
+            throw MALFORMED;
+        }
+        pos++;
+    }
+
+    private byte peek() throws MalformedClaimsException {
+        if (pos >= end) {
+            throw MALFORMED;
+        }
+        return buf[pos];
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(buf[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
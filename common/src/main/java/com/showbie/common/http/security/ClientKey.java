@@ -0,0 +1,39 @@
+package com.showbie.common.http.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the client making a request, for per-client state such as
+ * no-repeat phrase walks.
+ * <p>
+ * Clients may name themselves with the {@code X-Client-Key} header; otherwise
+ * the subject ({@code sub} claim) of their verified token identifies them, which
+ * (unlike the token itself) stays the same when the token is refreshed. Requests
+ * with neither are not identified.
+ */
+public final class ClientKey {
+    public static final String CLIENT_KEY_HEADER = "X-Client-Key";
+
+    private ClientKey() {
+    }
+
+    /**
+     * @return The request's client key, or {@code null} if the client cannot be identified.
+     */
+    public static String of(HttpServletRequest request) {
+        String clientKey = request.getHeader(CLIENT_KEY_HEADER);
+        if (StringUtils.hasLength(clientKey)) {
+            return clientKey;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof TokenAuthentication) {
+            String subject = ((TokenAuthentication) authentication).getSubject();
+            return StringUtils.hasLength(subject) ? subject : null;
+        }
+        return null;
+    }
+}
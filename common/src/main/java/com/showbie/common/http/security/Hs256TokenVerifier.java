@@ -0,0 +1,383 @@
+package com.showbie.common.http.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Verifies HS256 signed JWT tokens and validates the claims we rely on (iat, exp
+ * and scopes). It accepts and rejects the same tokens as the jjwt parser the
+ * {@link TokenParser} was originally built on, except that only HS256 is accepted
+ * and timestamps must fit in 12 digits.
+ * <p>
+ * Unlike jjwt this works on the token's bytes directly: the key is prepared once,
+ * verifications reuse pooled {@link Mac}s and scratch buffers, the signature is
+ * compared in constant time and the claims are pulled out by a streaming
+ * {@link ClaimsReader} rather than being parsed into a map. A successful
+ * verification allocates only the returned {@link VerifiedToken} (and its
+ * subject, for tokens that have one).
+ * <p>
+ * Instances are thread safe and intended to be shared.
+ */
+public class Hs256TokenVerifier {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+
+    /* DOC - tokens arrive in a request header, which the container already caps
+     *       at a few kilobytes; anything larger is rejected before decoding.
+     */
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    /* DOC - scratch states kept for reuse; verifications beyond this many at
+     *       once build their own and drop them afterwards.
+     */
+    private static final int SCRATCH_POOL_SIZE = 64;
+
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private static final byte[][] HEADER_NAMES = names("alg");
+    private static final int HEADER_ALG = 0;
+    private static final byte[][] SUPPORTED_ALGORITHMS = names("HS256");
+
+    private static final byte[][] CLAIM_NAMES = names("iat", "exp", "nbf", "scopes", "sub");
+    private static final int CLAIM_IAT = 0;
+    private static final int CLAIM_EXP = 1;
+    private static final int CLAIM_NBF = 2;
+    private static final int CLAIM_SCOPES = 3;
+    private static final int CLAIM_SUB = 4;
+
+    private static final long MISSING = Long.MIN_VALUE;
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SecretKeySpec key;
+    private final ScopeRegistry scopeRegistry;
+    private final byte[][] supportedScopeValues;
+    // DOC - scratch state is pooled rather than thread-local: on virtual threads
+    //       every request runs on a new thread, so a thread-local would build a
+    //       new Mac and buffers per request. Fixed slots rather than a queue,
+    //       whose offer would allocate a node per verification
+    private final AtomicReferenceArray<Scratch> scratchPool = new AtomicReferenceArray<>(SCRATCH_POOL_SIZE);
+
+    /**
+     * @param verificationKey Verification signing key.
+     * @param supportedScopes Scopes a token may contain (at most 64); all others are rejected.
+     */
+    public Hs256TokenVerifier(@NonNull String verificationKey, @NonNull Collection<String> supportedScopes) {
+        this(verificationKey, new ScopeRegistry(supportedScopes));
+    }
+
+    /**
+     * @param verificationKey Verification signing key.
+     * @param scopeRegistry   Scopes a token may contain; all others are rejected.
+     */
+    public Hs256TokenVerifier(@NonNull String verificationKey, @NonNull ScopeRegistry scopeRegistry) {
+        this.key = new SecretKeySpec(verificationKey.getBytes(), ALGORITHM); // rejects an empty key
+        this.scopeRegistry = scopeRegistry;
+        this.supportedScopeValues = names(scopeRegistry.getSupportedScopes().toArray(new String[0]));
+        scratchPool.set(0, new Scratch(newMac())); // fail fast if the key cannot be used
+    }
+
+    /**
+     * Verify a token against the current time.
+     *
+     * @param token Signed JWT string.
+     * @return The validated token, or {@code null} if it is not valid.
+     */
+    public VerifiedToken verify(@NonNull String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    /**
+     * Verify a token.
+     *
+     * @param token Signed JWT string.
+     * @param now   Current time in milliseconds.
+     * @return The validated token, or {@code null} if it is not valid.
+     */
+    public VerifiedToken verify(@NonNull String token, long now) {
+        int length = token.length();
+        if (length == 0 || length > MAX_TOKEN_LENGTH) {
+            return reject("token is empty or too long");
+        }
+
+        Scratch s = takeScratch();
+        try {
+            return verify(token, length, now, s);
+        } finally {
+            returnScratch(s);
+        }
+    }
+
+    private Scratch takeScratch() {
+        for (int i = 0; i < SCRATCH_POOL_SIZE; i++) {
+            if (scratchPool.get(i) != null) {
+                Scratch s = scratchPool.getAndSet(i, null);
+                if (s != null) {
+                    return s;
+                }
+            }
+        }
+        return new Scratch(newMac());
+    }
+
+    private void returnScratch(Scratch s) {
+        for (int i = 0; i < SCRATCH_POOL_SIZE; i++) {
+            if (scratchPool.get(i) == null && scratchPool.compareAndSet(i, null, s)) {
+                return;
+            }
+        }
+    }
+
+    private VerifiedToken verify(String token, int length, long now, Scratch s) {
+        byte[] input = s.input(length);
+
+        // GOAL - copy the (ascii) token into bytes and locate the two separators
+        int headerEnd = -1;
+        int payloadEnd = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c >= 0x80) {
+                return reject("token contains non-ascii characters");
+            }
+            if (c == '.') {
+                if (headerEnd < 0) {
+                    headerEnd = i;
+                } else if (payloadEnd < 0) {
+                    payloadEnd = i;
+                } else {
+                    return reject("token does not contain exactly 2 period characters");
+                }
+            }
+            input[i] = (byte) c;
+        }
+        if (payloadEnd < 0) {
+            return reject("token does not contain exactly 2 period characters");
+        }
+        if (payloadEnd == length - 1) {
+            return reject("unsigned tokens are not supported");
+        }
+
+        ClaimsReader reader = s.reader;
+        byte[] decoded = s.decoded(length);
+        try {
+            // GOAL - only accept tokens that claim to be HS256 signed
+            int headerLength = decodeBase64Url(input, 0, headerEnd, decoded);
+            if (headerLength < 0) {
+                return reject("malformed token header");
+            }
+            reader.reset(decoded, 0, headerLength);
+            reader.beginObject();
+            boolean supportedAlgorithm = false;
+            int name;
+            while ((name = reader.nextName(HEADER_NAMES)) != -2) {
+                if (name == HEADER_ALG) {
+                    supportedAlgorithm = reader.nextStringIndex(SUPPORTED_ALGORITHMS) >= 0;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endDocument();
+            if (!supportedAlgorithm) {
+                return reject("unsupported signature algorithm");
+            }
+
+            // GOAL - verify the token signature
+            int signatureLength = decodeBase64Url(input, payloadEnd + 1, length, s.signature);
+            if (signatureLength != SIGNATURE_LENGTH) {
+                return reject("malformed token signature");
+            }
+            Mac mac = s.mac;
+            mac.update(input, 0, payloadEnd);
+            mac.doFinal(s.expectedSignature, 0);
+            if (!constantTimeEquals(s.expectedSignature, s.signature, SIGNATURE_LENGTH)) {
+                return reject("signature does not match locally computed signature");
+            }
+
+            // CLAIM - token was cryptographically signed by the supplied key its claims are good
+
+            // DOC - however, we must still validate our semantic knowledge of the claims
+            int payloadLength = decodeBase64Url(input, headerEnd + 1, payloadEnd, decoded);
+            if (payloadLength < 0) {
+                return reject("malformed token payload");
+            }
+            reader.reset(decoded, 0, payloadLength);
+            reader.beginObject();
+            long issuedAt = MISSING;
+            long expiresBy = MISSING;
+            long notBefore = MISSING;
+            long scopes = 0;
+            boolean validScopes = false;
+            String subject = null;
+            while ((name = reader.nextName(CLAIM_NAMES)) != -2) {
+                if (reader.nextIsNull()) {
+                    continue;
+                }
+                switch (name) {
+                    case CLAIM_IAT:
+                        issuedAt = reader.nextLong() * 1000;
+                        break;
+                    case CLAIM_EXP:
+                        expiresBy = reader.nextLong() * 1000;
+                        break;
+                    case CLAIM_NBF:
+                        notBefore = reader.nextLong() * 1000;
+                        break;
+                    case CLAIM_SCOPES:
+                        // scopes are valid if not empty and all are supported -- bit i is the ith supported scope
+                        scopes = 0;
+                        validScopes = true;
+                        reader.beginArray();
+                        while (reader.nextElement()) {
+                            int scope = reader.nextStringIndex(supportedScopeValues);
+                            if (scope < 0) {
+                                validScopes = false;
+                            } else {
+                                scopes |= 1L << scope;
+                            }
+                        }
+                        validScopes &= scopes != 0;
+                        break;
+                    case CLAIM_SUB:
+                        // DOC - optional and not validated; a subject that is not a string is ignored
+                        if (reader.nextIsString()) {
+                            subject = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endDocument();
+
+            // GOAL - verify payload timestamps -- issuedAt <= now < expiresBy (and notBefore <= now if supplied)
+            boolean validTimestamps = issuedAt != MISSING && expiresBy != MISSING
+                    && issuedAt <= now && now < expiresBy && notBefore <= now;
+            if (!validTimestamps) {
+                return reject("required timestamps missing or out of range");
+            }
+            if (!validScopes) {
+                return reject("missing or unsupported scopes");
+            }
+
+            return new VerifiedToken(scopeRegistry, scopes, issuedAt, expiresBy, subject);
+        } catch (ClaimsReader.MalformedClaimsException e) {
+            return reject("malformed token json");
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e); // the signature buffer is sized for HS256
+        }
+    }
+
+    private VerifiedToken reject(String reason) {
+        logger.warn("Token parsing failure: {}", reason);
+        return null;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Decode unpadded (or padded) base64url {@code src[from, to)} into {@code dst}.
+     *
+     * @return Number of decoded bytes, or {@code -1} if the input is not valid base64url
+     * or does not fit.
+     */
+    static int decodeBase64Url(byte[] src, int from, int to, byte[] dst) {
+        while (to > from && src[to - 1] == '=') {
+            to--;
+        }
+        int length = to - from;
+        if (length % 4 == 1 || length * 3 / 4 > dst.length) {
+            return -1;
+        }
+
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            int value = BASE64URL_VALUES[src[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                dst[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int difference = 0;
+        for (int i = 0; i < length; i++) {
+            difference |= a[i] ^ b[i];
+        }
+        return difference == 0;
+    }
+
+    private static byte[][] names(String... names) {
+        byte[][] values = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * State reused across verifications, used by one thread at a time.
+     */
+    private static final class Scratch {
+        private final Mac mac;
+        private final ClaimsReader reader = new ClaimsReader();
+        private final byte[] signature = new byte[SIGNATURE_LENGTH + 3];
+        private final byte[] expectedSignature = new byte[SIGNATURE_LENGTH];
+        private byte[] input = new byte[512];
+        private byte[] decoded = new byte[512];
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            return input;
+        }
+
+        private byte[] decoded(int length) {
+            if (decoded.length < length) {
+                decoded = new byte[Math.max(length, decoded.length * 2)];
+            }
+            return decoded;
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.showbie.common.http.security;
 
+import com.showbie.common.errors.ErrorBody;
+import com.showbie.common.errors.RequestErrorController;
+import com.showbie.common.logging.LogRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -10,22 +19,62 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Configuration to ensure that a request authentication failure responds with a 401 response.
+ * <p>
+ * The 401 body is prebuilt (see {@link ErrorBody}) and written directly rather
+ * than through {@code sendError} and the {@code /error} forward, so rejecting a
+ * request costs less than serving one even during bursts of bad credentials.
+ * For the same reason rejections are logged at most
+ * {@code auth.reject.log.limit} times per {@code auth.reject.log.interval}.
  */
 @Component
-public class NonAuthenticatedRequestEntryPoint implements AuthenticationEntryPoint, Serializable {
+public class NonAuthenticatedRequestEntryPoint implements AuthenticationEntryPoint, MeterBinder, Serializable {
+    private static final ErrorBody UNAUTHENTICATED =
+            ErrorBody.of(HttpStatus.UNAUTHORIZED, RequestErrorController.UNAUTHENTICATED_MESSAGE);
+
     Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final LogRateLimiter rejectLog;
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param logLimit    Rejections logged per interval.
+     * @param logInterval Interval in milliseconds.
+     */
+    public NonAuthenticatedRequestEntryPoint(@Value("${auth.reject.log.limit:10}") int logLimit,
+                                             @Value("${auth.reject.log.interval:10000}") long logInterval) {
+        this.rejectLog = new LogRateLimiter(logLimit, logInterval);
+    }
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException {
-        logger.error(
-                "Unauthenticated request from {} to {}: {}",
-                request.getRemoteHost(),
-                request.getRequestURI(),
-                authException.getMessage()
-        );
-        response.sendError(HttpServletResponse.SC_UNAUTHORIZED); // 401
+        long now = System.currentTimeMillis();
+        rejections.increment();
+
+        long suppressed = rejectLog.acquire(now);
+        if (suppressed >= 0) {
+            logger.warn(
+                    "Unauthenticated request from {} to {}: {} ({} similar rejections not logged)",
+                    request.getRemoteAddr(),
+                    request.getRequestURI(),
+                    authException.getMessage(),
+                    suppressed
+            );
+        }
+
+        UNAUTHENTICATED.write(response, now); // 401
+    }
+
+    /**
+     * Rejection metrics (auth.rejections).
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("auth.rejections", rejections, LongAdder::sum)
+                .description("Requests rejected as unauthenticated")
+                .register(registry);
     }
 }
@@ -0,0 +1,124 @@
+package com.showbie.common.http.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the supported token scopes (from {@code auth.token.scopes}) into bit
+ * positions so that a validated set of scopes can travel through the request as
+ * a single {@code long} bitmask, and be checked with a mask test rather than a
+ * string lookup.
+ * <p>
+ * Bit {@code i} of a mask represents the {@code i}th supported scope, in the
+ * order they were configured; at most 64 scopes are supported.
+ */
+@Component
+public class ScopeRegistry {
+    private final List<String> supportedScopes;
+    private final Map<String, Long> masksByName = new ConcurrentHashMap<>();
+    private final Map<Long, Scopes> scopesByMask = new ConcurrentHashMap<>();
+
+    /**
+     * @param supportedScopes Scopes a token may contain; all others are rejected.
+     */
+    @Autowired
+    public ScopeRegistry(@Value("#{'${auth.token.scopes}'.split('\\s*,\\s*')}") // startup will be halted if this is undefined
+                         @NonNull Collection<String> supportedScopes) {
+        this.supportedScopes = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(supportedScopes)));
+        if (this.supportedScopes.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " scopes are supported");
+        }
+        for (int i = 0; i < this.supportedScopes.size(); i++) {
+            masksByName.put(this.supportedScopes.get(i), 1L << i);
+        }
+    }
+
+    /**
+     * @return Supported scopes, in bit order.
+     */
+    public List<String> getSupportedScopes() {
+        return supportedScopes;
+    }
+
+    /**
+     * Get the mask for a single scope. Resolve this once (e.g. at startup) and
+     * test request masks against it.
+     *
+     * @param scope Scope name.
+     * @return Mask with the scope's bit set, or {@code 0} if the scope is not supported.
+     */
+    public long maskOf(@NonNull String scope) {
+        Long mask = masksByName.get(scope);
+        return mask == null ? 0 : mask;
+    }
+
+    /**
+     * @return Scope names selected by the mask, in bit order (shared and unmodifiable).
+     */
+    public List<String> namesOf(long mask) {
+        return scopes(mask).names;
+    }
+
+    /**
+     * @return Scope names selected by the mask (shared and unmodifiable).
+     */
+    public Set<String> nameSetOf(long mask) {
+        return scopes(mask).nameSet;
+    }
+
+    /**
+     * @return Granted authorities (one per scope) selected by the mask (shared and unmodifiable).
+     */
+    public List<GrantedAuthority> authoritiesOf(long mask) {
+        return scopes(mask).authorities;
+    }
+
+    /**
+     * Scope views are built once per distinct combination of scopes; there are
+     * only ever a handful of those in use.
+     */
+    private Scopes scopes(long mask) {
+        Scopes scopes = scopesByMask.get(mask);
+        if (scopes == null) {
+            List<String> names = new ArrayList<>(Long.bitCount(mask));
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(mask));
+            for (int i = 0; i < supportedScopes.size(); i++) {
+                if ((mask & (1L << i)) != 0) {
+                    names.add(supportedScopes.get(i));
+                    authorities.add(new SimpleGrantedAuthority(supportedScopes.get(i)));
+                }
+            }
+            scopes = new Scopes(names, authorities);
+            Scopes existing = scopesByMask.putIfAbsent(mask, scopes);
+            if (existing != null) {
+                scopes = existing;
+            }
+        }
+        return scopes;
+    }
+
+    private static final class Scopes {
+        private final List<String> names;
+        private final Set<String> nameSet;
+        private final List<GrantedAuthority> authorities;
+
+        private Scopes(List<String> names, List<GrantedAuthority> authorities) {
+            this.names = Collections.unmodifiableList(names);
+            this.nameSet = Collections.unmodifiableSet(new LinkedHashSet<>(names));
+            this.authorities = Collections.unmodifiableList(authorities);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.showbie.common.http.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds a short lived token for calling another service, minted by the
+ * {@link TokenGenerator} and reused until shortly before it expires.
+ * <p>
+ * Reading the token is a single volatile read. A background thread mints the
+ * replacement {@code refreshMargin} milliseconds before the current token
+ * expires; should it fall behind (e.g. a long GC pause) the caller mints a token
+ * itself once the current one is within half the margin of expiring.
+ */
+public class ServiceTokenHolder implements AutoCloseable {
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String signingKey;
+    private final long lifetime;
+    private final long refreshMargin;
+    private final String[] scopes;
+    private final ScheduledExecutorService refresher;
+
+    private volatile MintedToken current;
+
+    /**
+     * @param signingKey    HS256 signing key.
+     * @param lifetime      Lifetime of each token in milliseconds.
+     * @param refreshMargin How long before expiry (in milliseconds) a token is replaced;
+     *                      must leave enough time for a request to be sent and validated.
+     * @param scope         Scopes to include.
+     */
+    public ServiceTokenHolder(@NonNull String signingKey, long lifetime, long refreshMargin, String... scope) {
+        if (refreshMargin <= 0 || refreshMargin >= lifetime) {
+            throw new IllegalArgumentException("Token refresh margin must be positive and less than the token lifetime");
+        }
+        this.signingKey = signingKey;
+        this.lifetime = lifetime;
+        this.refreshMargin = refreshMargin;
+        this.scopes = scope.clone();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        current = mint();
+        scheduleRefresh(current.refreshAt - System.currentTimeMillis());
+    }
+
+    /**
+     * Get a token that remains valid for at least half the refresh margin.
+     *
+     * @return JWS signed token.
+     */
+    public String getToken() {
+        MintedToken token = current;
+        if (System.currentTimeMillis() < token.expiresAt - refreshMargin / 2) {
+            return token.token;
+        }
+
+        // DOC - the background refresh has fallen behind; this is rare so a
+        //       few concurrent callers each minting a token is acceptable
+        logger.warn("Service token refresh is late, minting a token on the request thread");
+        MintedToken minted = mint();
+        current = minted;
+        return minted.token;
+    }
+
+    /**
+     * Stop refreshing the token.
+     */
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            current = mint();
+            scheduleRefresh(current.refreshAt - System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            logger.error("Service token refresh failed, retrying: {}", e.getMessage());
+            scheduleRefresh(RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void scheduleRefresh(long delayMillis) {
+        if (!refresher.isShutdown()) {
+            refresher.schedule(this::refresh, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private MintedToken mint() {
+        long now = System.currentTimeMillis();
+        String token = TokenGenerator.createTokenHS256(signingKey, new Date(now), new Date(now + lifetime), scopes);
+        // token timestamps only have second resolution, so the expiry is rounded down
+        long expiresAt = (now + lifetime) / 1000 * 1000;
+        return new MintedToken(token, expiresAt, expiresAt - refreshMargin);
+    }
+
+    private static final class MintedToken {
+        private final String token;
+        private final long expiresAt;
+        private final long refreshAt;
+
+        private MintedToken(String token, long expiresAt, long refreshAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.showbie.common.http.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authentication principle for a request carrying a valid token. The token's
+ * scopes are held as a {@link ScopeRegistry} bitmask; the equivalent granted
+ * authorities are shared views built by the registry.
+ */
+public class TokenAuthentication implements Authentication {
+    /* DOC - the principle name of tokens without a subject; tokens carry no
+     *       password either.
+     */
+    private static final String PRINCIPAL_NAME = "authenticated";
+
+    private final ScopeRegistry scopeRegistry;
+    private final long scopeMask;
+    private final long expiresAt;
+    private final String subject;
+    private boolean authenticated = true;
+
+    public TokenAuthentication(ScopeRegistry scopeRegistry, long scopeMask, long expiresAt) {
+        this(scopeRegistry, scopeMask, expiresAt, null);
+    }
+
+    public TokenAuthentication(ScopeRegistry scopeRegistry, long scopeMask, long expiresAt, String subject) {
+        this.scopeRegistry = scopeRegistry;
+        this.scopeMask = scopeMask;
+        this.expiresAt = expiresAt;
+        this.subject = subject;
+    }
+
+    /**
+     * @return The validated token scopes as a {@link ScopeRegistry} bitmask.
+     */
+    public long getScopeMask() {
+        return scopeMask;
+    }
+
+    /**
+     * @return Token expiry time in milliseconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @return The token's subject, or {@code null} if it has none.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    public ScopeRegistry getScopeRegistry() {
+        return scopeRegistry;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return scopeRegistry.authoritiesOf(scopeMask);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return "";
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return getName();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        if (isAuthenticated) {
+            throw new IllegalArgumentException("A token authentication can only be trusted when created by the TokenValidationFilter");
+        }
+        authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return subject == null ? PRINCIPAL_NAME : subject;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + scopeRegistry.namesOf(scopeMask);
+    }
+}
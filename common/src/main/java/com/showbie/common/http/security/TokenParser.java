@@ -1,14 +1,10 @@
 package com.showbie.common.http.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 
-import java.util.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Utility class to parse and validate a (signed) JWT token.
@@ -22,58 +18,34 @@ public class TokenParser {
      *       this assignment all would work equally well.
      */
 
-    Logger logger = LoggerFactory.getLogger(getClass());
-
     private final boolean isValid;
     private final List<String> scopes;
+    private final long expiresAt;
 
     /**
      * Parses a digitally signed JWT token.
      *
      * @param verificationKey Verification signing key.
+     * @param supportedScopes Scopes the token may contain; all others are rejected.
      * @param token           Signed JWT string.
      */
     public TokenParser(@NonNull String verificationKey, @NonNull Collection<String> supportedScopes, @NonNull String token) {
-        // GOAL - verify the token signature
-        Jws<Claims> claimsJws;
-        try {
-            claimsJws = Jwts.parser()
-                    .setSigningKey(verificationKey.getBytes())
-                    .parseClaimsJws(token);
-        } catch (JwtException e) {
-            // parsing failed for any of many reasons
-            logger.warn("Token parsing failure: {}", e.getMessage());
-            isValid = false;
-            scopes = null;
-            return;
-        }
-
-        // CLAIM - token was cryptographically signed by the supplied key its claims are good
-
-        // DOC - however, we must still validate our semantic knowledge of the claims
-
-        // GOAL - verify payload timestamps -- expiry time was verified above (if supplied)
-        Date issuedAt = claimsJws.getBody().getIssuedAt();
-        Date expiresBy = claimsJws.getBody().getExpiration();
-        long now = new Date().getTime();
-
-        // timestamps are valid if they were provided and issuedAt <= now < expiresBy
-        boolean validTimestamps = issuedAt != null && expiresBy != null
-                && issuedAt.getTime() <= now && now < expiresBy.getTime();
-        if (!validTimestamps) {
-            logger.warn("Token parsing failure: required timestamps missing or out of range: iat={}, exp={}", issuedAt, expiresBy);
-        }
-
-        // GOAL - verify payload scopes
-        scopes = claimsJws.getBody().get("scopes", ArrayList.class);
-
-        // scopes are valid if not empty and all are supported
-        boolean validScopes = scopes != null && !scopes.isEmpty() && supportedScopes.containsAll(scopes);
-        if (!validScopes) {
-            logger.warn("Token parsing failure: missing or unsupported scopes={}", scopes);
-        }
+        this(new Hs256TokenVerifier(verificationKey, supportedScopes), token);
+    }
 
-        isValid = validTimestamps && validScopes;
+    /**
+     * Parses a digitally signed JWT token using a shared verifier (which avoids
+     * preparing the verification key for every token).
+     *
+     * @param verifier Verifier holding the verification key and supported scopes.
+     * @param token    Signed JWT string.
+     */
+    public TokenParser(@NonNull Hs256TokenVerifier verifier, @NonNull String token) {
+        // DOC - the verifier checks the signature, timestamps and scopes
+        VerifiedToken verifiedToken = verifier.verify(token);
+        isValid = verifiedToken != null;
+        scopes = isValid ? verifiedToken.getScopes() : null;
+        expiresAt = isValid ? verifiedToken.getExpiresAt() : 0;
     }
 
     /**
@@ -93,4 +65,13 @@ public class TokenParser {
     public List<String> getScopes() {
         return isValid ? scopes : Collections.emptyList();
     }
+
+    /**
+     * Get the expiry time of a valid token.
+     *
+     * @return Expiry time in milliseconds, or {@code 0} if the token is not valid.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
 }
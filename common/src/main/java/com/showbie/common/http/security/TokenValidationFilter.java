@@ -1,16 +1,16 @@
 package com.showbie.common.http.security;
 
+import com.showbie.common.http.correlation.CorrelationIdGenerator;
+import com.showbie.common.logging.LogRateLimiter;
+import com.showbie.common.metrics.StageTimer;
+import com.showbie.common.metrics.StageTimers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,9 +21,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Implements a request authentication filter that validates the authorization
@@ -31,7 +28,10 @@ import java.util.stream.Collectors;
  * <p>
  * Also extracts the correlation id from the incoming request and stores it for
  * logging and subsequent outgoing requests. This allows us to observe via
- * logging incoming requests as they travel through our services.
+ * logging incoming requests as they travel through our services. Requests
+ * without one are given an id from the {@link CorrelationIdGenerator}, and are
+ * logged at most {@code correlation.missing.log.limit} times per
+ * {@code correlation.missing.log.interval}.
  * See also {@link com.showbie.common.http.correlation.RestTemplateCorrelationInterceptor}.
  */
 @Component
@@ -46,8 +46,40 @@ public class TokenValidationFilter extends OncePerRequestFilter {
     @Value("${auth.token.key}") // startup will be halted if this is undefined
     private String tokenVerificationKey;
 
-    @Value("#{'${auth.token.scopes}'.split('\\s*,\\s*')}") // startup will be halted if this is undefined
-    private List<String> supportedScopes;
+    @Value("${correlation.missing.log.limit:10}")
+    private int missingCorrelationLogLimit;
+
+    @Value("${correlation.missing.log.interval:10000}")
+    private long missingCorrelationLogInterval;
+
+    private Hs256TokenVerifier tokenVerifier;
+    private LogRateLimiter missingCorrelationLog;
+    private CorrelationIdGenerator correlationIdGenerator;
+    private StageTimers stageTimers;
+    private StageTimer correlationTimer;
+    private StageTimer tokenTimer;
+    private ScopeRegistry scopeRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    public void setScopeRegistry(ScopeRegistry scopeRegistry) {
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Autowired
+    public void setCorrelationIdGenerator(CorrelationIdGenerator correlationIdGenerator) {
+        this.correlationIdGenerator = correlationIdGenerator;
+    }
+
+    @Autowired
+    public void setStageTimers(StageTimers stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
+    @Autowired
+    public void setVerifiedTokenCache(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
 
     @PostConstruct
     public void showInfo() {
@@ -57,7 +89,16 @@ public class TokenValidationFilter extends OncePerRequestFilter {
         if (tokenVerificationKey.length() > minLength) { // all secure keys should be of longer length
             obfuscatedKey = tokenVerificationKey.substring(0, minLength) + "...";
         }
-        logger.info("DIAGNOSTIC: Accepting key={} with supportedScopes={}", obfuscatedKey, supportedScopes);
+        logger.info("DIAGNOSTIC: Accepting key={} with supportedScopes={}", obfuscatedKey, scopeRegistry.getSupportedScopes());
+    }
+
+    @Override
+    protected void initFilterBean() {
+        // DOC - the verifier prepares the key once and is shared by all requests
+        tokenVerifier = new Hs256TokenVerifier(tokenVerificationKey, scopeRegistry);
+        missingCorrelationLog = new LogRateLimiter(missingCorrelationLogLimit, missingCorrelationLogInterval);
+        correlationTimer = stageTimers.create("auth.correlation", "Reading or generating the request's correlation id");
+        tokenTimer = stageTimers.create("auth.token", "Validating the bearer token (cached or verified)");
     }
 
     /**
@@ -81,23 +122,25 @@ public class TokenValidationFilter extends OncePerRequestFilter {
         // store the request's correlation id for tracking purposes -- this
         // needs to be done here (instead of another filter) to ensure we log
         // the id for authentication related logging
+        long start = System.nanoTime();
         storeRequestCorrelationId(request);
+        correlationTimer.record(start);
 
         // ensure the request contains an authorization header including a bearer token
         String header = request.getHeader(AUTHORIZATION_HEADER_NAME);
         if (header != null && header.startsWith(AUTHORIZATION_HEADER_BEARER_PREFIX)) {
-            com.showbie.common.http.security.TokenParser tokenParser = new com.showbie.common.http.security.TokenParser(
-                    tokenVerificationKey,
-                    supportedScopes,
-                    header.substring(AUTHORIZATION_HEADER_BEARER_PREFIX.length())
-            );
+            start = System.nanoTime();
+            TokenAuthentication authentication = validateToken(header.substring(AUTHORIZATION_HEADER_BEARER_PREFIX.length()));
+            tokenTimer.record(start);
 
             // if token is valid then set security context
-            if (tokenParser.isValid()) {
+            if (authentication != null) {
                 // TODO - this could be abstracted to a method with a unit test to verify it and createAuthenticationPrinciple()
-                logger.debug("Request authenticated via JWT with scopes {}", tokenParser.getScopes());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request authenticated via JWT with scopes {}", scopeRegistry.namesOf(authentication.getScopeMask()));
+                }
                 SecurityContext context = SecurityContextHolder.createEmptyContext();
-                context.setAuthentication(createAuthenticationPrinciple(tokenParser.getScopes()));
+                context.setAuthentication(authentication);
                 SecurityContextHolder.setContext(context);
             }
         }
@@ -106,6 +149,31 @@ public class TokenValidationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Validate a bearer token, answering from the {@link VerifiedTokenCache} when
+     * the same token has already been validated.
+     *
+     * @param token Signed JWT string.
+     * @return Authentication principle, or {@code null} if the token is not valid.
+     */
+    private TokenAuthentication validateToken(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.Entry cached = verifiedTokenCache.lookup(token, now);
+        if (cached != null) {
+            return createAuthenticationPrinciple(cached.getScopeMask(), cached.getExpiresAt(), cached.getSubject());
+        }
+
+        VerifiedToken verifiedToken = tokenVerifier.verify(token, now);
+        if (verifiedToken == null) {
+            return null;
+        }
+
+        verifiedTokenCache.put(token, verifiedToken.getScopeMask(), verifiedToken.getExpiresAt(),
+                verifiedToken.getSubject(), now);
+        return createAuthenticationPrinciple(verifiedToken.getScopeMask(), verifiedToken.getExpiresAt(),
+                verifiedToken.getSubject());
+    }
+
     /**
      * Store the request's correlation id so that it can be logged here and on
      * nested http requests to other services.
@@ -116,8 +184,11 @@ public class TokenValidationFilter extends OncePerRequestFilter {
         // DOC - the correlation id is stored in the logging subsystem's MDC
         String correlationId = request.getHeader(CORRELATION_ID_HEADER);
         if (!StringUtils.hasLength(correlationId)) {
-            correlationId = UUID.randomUUID().toString();
-            logger.warn("Request correlation id not supplied, using {}", correlationId);
+            correlationId = correlationIdGenerator.next();
+            long suppressed = missingCorrelationLog.acquire(System.currentTimeMillis());
+            if (suppressed >= 0) {
+                logger.warn("Request correlation id not supplied, using {} ({} similar requests not logged)", correlationId, suppressed);
+            }
         }
         MDC.put(CORRELATION_MDC_KEY, correlationId);
     }
@@ -125,16 +196,13 @@ public class TokenValidationFilter extends OncePerRequestFilter {
     /**
      * Generate an authentication principle for use in SpringFramework.
      *
-     * @param scopes Valid scopes.
+     * @param scopeMask Valid scopes as a {@link ScopeRegistry} bitmask.
+     * @param expiresAt Token expiry time in milliseconds.
+     * @param subject   Token subject, or {@code null}.
      * @return Authentication principle.
      */
-    private Authentication createAuthenticationPrinciple(List<String> scopes) {
-        List<GrantedAuthority> authorities = scopes.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-        // token does not currently contain a principle name so we have no username or password
-        User user = new User("authenticated", "", authorities);
-        return new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+    private TokenAuthentication createAuthenticationPrinciple(long scopeMask, long expiresAt, String subject) {
+        // tokens carry no password; the subject, when present, names the principle
+        return new TokenAuthentication(scopeRegistry, scopeMask, expiresAt, subject);
     }
 }
-
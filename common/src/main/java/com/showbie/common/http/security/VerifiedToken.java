@@ -0,0 +1,57 @@
+package com.showbie.common.http.security;
+
+import java.util.List;
+
+/**
+ * The claims of a token that passed validation by the {@link Hs256TokenVerifier}.
+ */
+public final class VerifiedToken {
+    private final ScopeRegistry scopeRegistry;
+    private final long scopeMask;
+    private final long issuedAt;
+    private final long expiresAt;
+    private final String subject;
+
+    VerifiedToken(ScopeRegistry scopeRegistry, long scopeMask, long issuedAt, long expiresAt, String subject) {
+        this.scopeRegistry = scopeRegistry;
+        this.scopeMask = scopeMask;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.subject = subject;
+    }
+
+    /**
+     * @return Validated (supported) scopes as a {@link ScopeRegistry} bitmask; never zero.
+     */
+    public long getScopeMask() {
+        return scopeMask;
+    }
+
+    /**
+     * @return Validated (supported) scopes; never empty.
+     */
+    public List<String> getScopes() {
+        return scopeRegistry.namesOf(scopeMask);
+    }
+
+    /**
+     * @return Issued At time in milliseconds.
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return Expires At time in milliseconds.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @return Subject (sub claim), or {@code null} if the token has none.
+     */
+    public String getSubject() {
+        return subject;
+    }
+}
@@ -0,0 +1,205 @@
+package com.showbie.common.http.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of bearer tokens that have already passed validation by the
+ * {@link Hs256TokenVerifier}, mapping the raw token to its validated scope mask
+ * (see {@link ScopeRegistry}) and expiry.
+ * <p>
+ * Clients reuse the same token for its whole lifetime, so a cache hit lets the
+ * {@link TokenValidationFilter} skip decoding, claims parsing and the HS256
+ * signature check. Entries are evicted once their token expires, and a batch of
+ * entries is evicted whenever the cache reaches its maximum size.
+ * <p>
+ * Only valid tokens are cached; a rejected token is always re-parsed.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    /* DOC - when full we evict this fraction of the entries in one go so that
+     *       a cache full of live tokens does not sweep on every insert.
+     */
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final int maximumSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize Maximum number of tokens to keep; zero disables caching.
+     */
+    public VerifiedTokenCache(@Value("${auth.token.cache.max-size:10000}") int maximumSize) {
+        this.maximumSize = Math.max(0, maximumSize);
+    }
+
+    /**
+     * Look up a previously validated token.
+     *
+     * @param token Raw (signed) JWT string.
+     * @param now   Current time in milliseconds.
+     * @return Validated scope mask, or {@code 0} if the token is not cached or has expired.
+     */
+    public long get(@NonNull String token, long now) {
+        Entry entry = lookup(token, now);
+        return entry == null ? 0 : entry.scopeMask;
+    }
+
+    /**
+     * Look up a previously validated token.
+     *
+     * @return The token's validated scope mask, expiry and subject, or {@code null} if the token is not cached or has expired.
+     */
+    Entry lookup(@NonNull String token, long now) {
+        if (maximumSize == 0) {
+            return null;
+        }
+
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        // cached tokens were valid when stored, but they can still expire
+        if (now >= entry.expiresAt) {
+            if (entries.remove(token, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Store a validated token.
+     *
+     * @param token     Raw (signed) JWT string.
+     * @param scopeMask Validated scope mask (non-zero).
+     * @param expiresAt Token expiry time in milliseconds.
+     * @param now       Current time in milliseconds.
+     */
+    public void put(@NonNull String token, long scopeMask, long expiresAt, long now) {
+        put(token, scopeMask, expiresAt, null, now);
+    }
+
+    /**
+     * Store a validated token.
+     *
+     * @param token     Raw (signed) JWT string.
+     * @param scopeMask Validated scope mask (non-zero).
+     * @param expiresAt Token expiry time in milliseconds.
+     * @param subject   Token subject, or {@code null}.
+     * @param now       Current time in milliseconds.
+     */
+    public void put(@NonNull String token, long scopeMask, long expiresAt, String subject, long now) {
+        if (maximumSize == 0 || scopeMask == 0 || now >= expiresAt) {
+            return;
+        }
+
+        if (entries.size() >= maximumSize) {
+            evict(now);
+        }
+        entries.put(token, new Entry(scopeMask, expiresAt, subject));
+    }
+
+    /**
+     * Number of tokens currently cached (expired tokens are included until evicted).
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("auth.token.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Bearer token lookups answered from the verified token cache")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Bearer token lookups that required full token validation")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.evictions", evictions, LongAdder::sum)
+                .description("Tokens evicted from the verified token cache (expired or over capacity)")
+                .register(registry);
+        Gauge.builder("auth.token.cache.size", entries, Map::size)
+                .description("Tokens currently held in the verified token cache")
+                .register(registry);
+    }
+
+    /**
+     * Make room for a new entry: drop expired tokens first and, if the cache is
+     * still full, an arbitrary batch of live ones.
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now >= iterator.next().getValue().expiresAt) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        int excess = entries.size() - maximumSize + Math.max(1, maximumSize / EVICTION_BATCH_DIVISOR);
+        iterator = entries.entrySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+            excess--;
+        }
+    }
+
+    static final class Entry {
+        private final long scopeMask;
+        private final long expiresAt;
+        private final String subject;
+
+        private Entry(long scopeMask, long expiresAt, String subject) {
+            this.scopeMask = scopeMask;
+            this.expiresAt = expiresAt;
+            this.subject = subject;
+        }
+
+        long getScopeMask() {
+            return scopeMask;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        String getSubject() {
+            return subject;
+        }
+    }
+}
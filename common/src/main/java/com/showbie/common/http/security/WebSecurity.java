@@ -1,19 +1,41 @@
 package com.showbie.common.http.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.NullSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.savedrequest.RequestCache;
 
 /**
  * Extend web request security by requiring JWT token validation for each request.
+ * <p>
+ * Every request carries its own bearer token, so by default
+ * ({@code auth.chain.stateless=true}) the chain is trimmed to what that needs:
+ * no {@code HttpSession} (the default chain creates one per authenticated request
+ * to store its security context), no CSRF tokens, request cache, logout or servlet
+ * API wrapping, only the cache control and content type options headers, and
+ * authorization without SpEL expression evaluation. Set it to {@code false} for the
+ * full default chain.
+ * <p>
+ * The paths in {@code auth.permit-paths} (by default the actuator health and
+ * metrics endpoints) are served without a token, so monitoring needs none.
  */
 @Configuration
-public class WebSecurity extends WebSecurityConfigurerAdapter {
+public class WebSecurity {
     private NonAuthenticatedRequestEntryPoint nonAuthenticatedRequestEntryPoint;
     private TokenValidationFilter tokenValidationFilter;
 
+    @Value("${auth.chain.stateless:true}")
+    private boolean stateless;
+
+    @Value("${auth.permit-paths:/actuator/health,/actuator/health/**,/actuator/metrics,/actuator/metrics/**}")
+    private String[] permitPaths;
+
     @Autowired
     public void setNonAuthenticatedRequestEntryPoint(NonAuthenticatedRequestEntryPoint nonAuthenticatedRequestEntryPoint) {
         this.nonAuthenticatedRequestEntryPoint = nonAuthenticatedRequestEntryPoint;
@@ -24,16 +46,49 @@ public class WebSecurity extends WebSecurityConfigurerAdapter {
         this.tokenValidationFilter = tokenValidationFilter;
     }
 
-    @Override
-    protected void configure(HttpSecurity http) throws Exception {
-        // ensure all requests are authenticated
-        http.authorizeRequests().anyRequest().authenticated();
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        if (stateless) {
+            configureStateless(http);
+        } else {
+            // ensure all requests are authenticated -- except the error page, which
+            // renders the error (e.g. 401) response of requests already rejected,
+            // and the permitted (monitoring) paths
+            http.authorizeRequests()
+                    .antMatchers("/error").permitAll()
+                    .antMatchers(permitPaths).permitAll()
+                    .anyRequest().authenticated();
+        }
 
         // non-authenticated requests return a 401
         http.exceptionHandling().authenticationEntryPoint(nonAuthenticatedRequestEntryPoint);
 
         // add our token validation filter into the authentication chain
         http.addFilterBefore(tokenValidationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
     }
-}
 
+    private void configureStateless(HttpSecurity http) throws Exception {
+        // ensure all requests are authenticated -- the authorization filter skips
+        // error dispatches, so the error page needs no exception -- except the
+        // permitted (monitoring) paths
+        http.authorizeHttpRequests()
+                .antMatchers(permitPaths).permitAll()
+                .anyRequest().authenticated();
+
+        // DOC - the security context lives for one request; never look for it in (or save it to) a session
+        http.securityContext().securityContextRepository(new NullSecurityContextRepository());
+        http.sessionManagement().disable();
+        // DOC - nor save a rejected request to one for after authentication: without a
+        //       shared cache the exception handling would fall back to a session one
+        http.setSharedObject(RequestCache.class, new NullRequestCache());
+        http.requestCache().disable();
+        http.csrf().disable();
+        http.logout().disable();
+        http.servletApi().disable();
+        http.headers().defaultsDisabled()
+                .cacheControl().and()
+                .contentTypeOptions();
+    }
+}
@@ -0,0 +1,53 @@
+package com.showbie.common.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how often a noisy log statement (e.g. one per rejected request) is
+ * written: at most {@code limit} times per interval, with the number of events
+ * suppressed in between reported on the next one logged.
+ * <p>
+ * Lock free; under contention slightly more than {@code limit} events may be
+ * logged as an interval turns over.
+ */
+public final class LogRateLimiter {
+    private final int limit;
+    private final long intervalMillis;
+
+    private final AtomicLong interval = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param limit          Events logged per interval; zero suppresses all of them.
+     * @param intervalMillis Interval length in milliseconds.
+     */
+    public LogRateLimiter(int limit, long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Log interval must be positive");
+        }
+        this.limit = Math.max(0, limit);
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Record an event.
+     *
+     * @param now Current time in milliseconds.
+     * @return {@code -1} if the event should not be logged, otherwise the number
+     * of events suppressed since the last one logged.
+     */
+    public long acquire(long now) {
+        long current = now / intervalMillis;
+        long previous = interval.get();
+        if (current != previous && interval.compareAndSet(previous, current)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > limit) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.showbie.common.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one stage of request handling (see {@link StageTimers}).
+ * <pre>
+ *   long start = System.nanoTime();
+ *   ... the stage ...
+ *   stageTimer.record(start);
+ * </pre>
+ * Recording only updates counters and histogram buckets of a timer registered
+ * up front, so it allocates nothing; until a registry is bound it does nothing.
+ */
+public final class StageTimer {
+    private final String stage;
+    private final String description;
+    private volatile Timer timer;
+
+    StageTimer(String stage, String description) {
+        this.stage = stage;
+        this.description = description;
+    }
+
+    /**
+     * Record the time since {@code startNanos}.
+     *
+     * @param startNanos {@link System#nanoTime()} at the start of the stage.
+     */
+    public void record(long startNanos) {
+        Timer current = timer;
+        if (current != null) {
+            current.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    String getStage() {
+        return stage;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    void bind(Timer timer) {
+        this.timer = timer;
+    }
+}
@@ -0,0 +1,59 @@
+package com.showbie.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Latency of the stages of request handling (token validation, phrase
+ * selection, the private-service call, ...), so that a latency spike can be
+ * traced to the stage it came from.
+ * <p>
+ * Each stage is a {@code request.stage} timer tagged with its {@code stage},
+ * publishing its p50, p99 and p99.9 (as {@code request.stage.percentile}) and max,
+ * e.g. {@code /actuator/metrics/request.stage.percentile?tag=stage:auth.token&tag=phi:0.99}.
+ * Components create their {@link StageTimer}s once, at startup.
+ */
+@Component
+public class StageTimers implements MeterBinder {
+    private final List<StageTimer> stageTimers = new ArrayList<>();
+    private MeterRegistry registry;
+
+    /**
+     * @param stage       Stage name, e.g. {@code auth.token}.
+     * @param description What the stage covers.
+     * @return Timer for the stage.
+     */
+    public synchronized StageTimer create(String stage, String description) {
+        StageTimer stageTimer = new StageTimer(stage, description);
+        stageTimers.add(stageTimer);
+        if (registry != null) {
+            stageTimer.bind(register(registry, stageTimer));
+        }
+        return stageTimer;
+    }
+
+    /**
+     * Stage latency metrics (request.stage), for stages created before and after binding.
+     */
+    @Override
+    public synchronized void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        for (StageTimer stageTimer : stageTimers) {
+            stageTimer.bind(register(registry, stageTimer));
+        }
+    }
+
+    private static Timer register(MeterRegistry registry, StageTimer stageTimer) {
+        return Timer.builder("request.stage")
+                .tag("stage", stageTimer.getStage())
+                .description(stageTimer.getDescription())
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+    }
+}
@@ -0,0 +1,175 @@
+package com.showbie.common.models;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes {@link Message}s to JSON without an {@code ObjectMapper}, producing the
+ * same bytes Jackson does: {@code {"text":"...","origin":"..."}} with strings
+ * escaped by Jackson's own {@link JsonStringEncoder}.
+ * <p>
+ * Used to serve precomputed message bytes (see
+ * {@link com.showbie.common.services.MessageService#getPhraseJson(String)}),
+ * which are assembled from {@link #textPrefix()}, the escaped text and
+ * {@link #originSuffix(String)}.
+ */
+public final class MessageJson {
+    private static final byte[] TEXT_PREFIX = "{\"text\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ORIGIN_PREFIX = ",\"origin\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private MessageJson() {
+    }
+
+    /**
+     * @return UTF-8 JSON encoding of the message.
+     */
+    public static byte[] encode(Message message) {
+        return encode(message.getText(), message.getOrigin());
+    }
+
+    /**
+     * @return UTF-8 JSON encoding of a message with the given text and origin.
+     */
+    public static byte[] encode(String text, String origin) {
+        byte[] textValue = quote(text);
+        byte[] originValue = quote(origin);
+        byte[] json = new byte[TEXT_PREFIX.length + textValue.length + ORIGIN_PREFIX.length + originValue.length + 1];
+        int length = append(json, 0, TEXT_PREFIX);
+        length = append(json, length, textValue);
+        length = append(json, length, ORIGIN_PREFIX);
+        length = append(json, length, originValue);
+        json[length] = '}';
+        return json;
+    }
+
+    /**
+     * @param messages Encoded messages.
+     * @return UTF-8 JSON array of the encoded messages.
+     */
+    public static byte[] array(List<byte[]> messages) {
+        int size = messages.size();
+        int length = 2 + Math.max(0, size - 1);
+        for (int i = 0; i < size; i++) {
+            length += messages.get(i).length;
+        }
+
+        byte[] json = new byte[length];
+        json[0] = '[';
+        int position = 1;
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json[position++] = ',';
+            }
+            position = append(json, position, messages.get(i));
+        }
+        json[position] = ']';
+        return json;
+    }
+
+    /**
+     * @return Bytes preceding the (escaped) text of an encoded message.
+     */
+    public static byte[] textPrefix() {
+        return "{\"text\":\"".getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Bytes following the (escaped) text of an encoded message with the given origin.
+     */
+    public static byte[] originSuffix(String origin) {
+        byte[] originValue = quote(origin);
+        byte[] suffix = new byte[1 + ORIGIN_PREFIX.length + originValue.length + 1];
+        suffix[0] = '"';
+        int length = append(suffix, 1, ORIGIN_PREFIX);
+        length = append(suffix, length, originValue);
+        suffix[length] = '}';
+        return suffix;
+    }
+
+    /**
+     * @return UTF-8 JSON string content (without quotes) for the value.
+     */
+    public static byte[] escape(String value) {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(value);
+    }
+
+    /**
+     * Reverse {@link #escape(String)}.
+     *
+     * @param escaped UTF-8 JSON string content (without quotes).
+     */
+    public static String unescape(byte[] escaped) {
+        String value = new String(escaped, StandardCharsets.UTF_8);
+        int backslash = value.indexOf('\\');
+        if (backslash < 0) {
+            return value;
+        }
+
+        StringBuilder unescaped = new StringBuilder(value.length());
+        unescaped.append(value, 0, backslash);
+        for (int i = backslash; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\') {
+                unescaped.append(c);
+                continue;
+            }
+            char escape = value.charAt(++i);
+            switch (escape) {
+                case 'b':
+                    unescaped.append('\b');
+                    break;
+                case 'f':
+                    unescaped.append('\f');
+                    break;
+                case 'n':
+                    unescaped.append('\n');
+                    break;
+                case 'r':
+                    unescaped.append('\r');
+                    break;
+                case 't':
+                    unescaped.append('\t');
+                    break;
+                case 'u':
+                    unescaped.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default: // '"', '\\' and '/'
+                    unescaped.append(escape);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * Response carrying already encoded JSON, written to the servlet output
+     * stream as is.
+     */
+    public static ResponseEntity<byte[]> response(byte[] json) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    private static byte[] quote(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] escaped = escape(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static int append(byte[] target, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, target, position, bytes.length);
+        return position + bytes.length;
+    }
+}
@@ -0,0 +1,106 @@
+package com.showbie.common.services;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+
+/**
+ * Walker's alias table (built with Vose's method) for O(1) sampling of indices
+ * with given weights: each index owns a column holding its own probability and
+ * an alias that takes the rest of the column, so a sample is one uniform column
+ * choice and one biased coin flip.
+ * <p>
+ * Probabilities are stored as ints scaled to {@link Integer#MAX_VALUE} so the
+ * table can be kept in (and mapped from) a corpus file as two int arrays.
+ */
+final class AliasTable {
+    private static final double SCALE = Integer.MAX_VALUE;
+
+    private final int size;
+    private final IntBuffer probabilities;
+    private final IntBuffer aliases;
+
+    AliasTable(int size, IntBuffer probabilities, IntBuffer aliases) {
+        if (probabilities.limit() != size || aliases.limit() != size) {
+            throw new IllegalArgumentException("Alias table does not match its phrases");
+        }
+        this.size = size;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    /**
+     * @param weights Non-negative weights, at least one positive.
+     */
+    static AliasTable build(double[] weights, int size) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            double weight = weights[i];
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Phrase weights must be finite and non-negative: " + weight);
+            }
+            total += weight;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("At least one phrase weight must be positive");
+        }
+
+        // DOC - scale so the average column is full; columns below 1 are topped up
+        //       from columns above 1 until every column is exactly full
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        int[] probabilities = new int[size];
+        int[] aliases = new int[size];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = (int) (scaled[less] * SCALE);
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // DOC - whatever is left is full up to rounding error, and is its own alias
+        while (largeCount > 0) {
+            int full = large[--largeCount];
+            probabilities[full] = Integer.MAX_VALUE;
+            aliases[full] = full;
+        }
+        while (smallCount > 0) {
+            int full = small[--smallCount];
+            probabilities[full] = Integer.MAX_VALUE;
+            aliases[full] = full;
+        }
+        return new AliasTable(size, IntBuffer.wrap(probabilities), IntBuffer.wrap(aliases));
+    }
+
+    /**
+     * @return A random index, distributed according to the weights.
+     */
+    int sample(Random random) {
+        int column = random.nextInt(size);
+        return (random.nextInt() & Integer.MAX_VALUE) < probabilities.get(column) ? column : aliases.get(column);
+    }
+
+    int probability(int index) {
+        return probabilities.get(index);
+    }
+
+    int alias(int index) {
+        return aliases.get(index);
+    }
+}
@@ -1,103 +1,176 @@
 package com.showbie.common.services;
 
+import com.showbie.common.models.MessageJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Utility class for generating messages
+ * <p>
+ * Phrases come from the corpus at {@code message.corpus.location}: a text file
+ * (one phrase per line) is loaded onto the heap, while a {@code .corpus} file is
+ * memory-mapped (see {@link PhraseCorpus}) so corpora of millions of phrases
+ * cost neither heap nor startup time. The built-in corpus is used by default.
+ * Phrases given weights in the corpus are selected in proportion to them.
+ * <p>
+ * With {@code message.no-repeat.max-clients} set, {@link #getPhraseJson(String, String)}
+ * instead walks each client through its own shuffle of the corpus (see
+ * {@link PhraseSequences}), so a client sees every phrase once before any repeats.
+ * <p>
+ * A corpus file is checked for changes every {@code message.corpus.reload-interval}
+ * milliseconds and reloaded on a background thread; the new corpus is published
+ * with a single volatile write, so requests never wait for a reload and always
+ * see either the old or the new corpus in full.
  */
 @Service
-public class MessageService {
-
-    List<String> phrases = new ArrayList<>(Arrays.asList(
-        "Delight the world with compassion, kindness and grace.",
-        "The early bird gets the worm, but the second mouse gets the cheese.",
-        "Some days you are pigeon, some days you are statue. Today, bring umbrella.",
-        "Be on the alert to recognize your prime at whatever time of your life it may occur.",
-        "Your reality check about to bounce.",
-        "Tension is who you think you should be. Relaxation is who you are.",
-        "When blind leading the blind... get out of the way.",
-        "Everyone seems normal until you get to know them.",
-        "Only difference between a rut and a grave is depth.",
-        "Experience is what you have left when everything else gone.",
-        "A closed mouth gathers no feet.",
-        "A conclusion is simply the place where you got tired of thinking.",
-        "A cynic is only a frustrated optimist.",
-        "Your road to glory will be rocky but fulfilling.",
-        "Courage is not simply one of the virtues, but the form of every virtue at the testing point.",
-        "Patience is your ally at the moment. Don’t worry!",
-        "Nothing is impossible to a willing heart.",
-        "Don’t worry about money. The best things in life are free.",
-        "Don’t pursue happiness – create it.",
-        "If at first you don’t succeed, skydiving not for you.",
-        "Ninety-nine percent of all lawyers give the rest a bad name.",
-        "Easiest way to find a lost object is to buy a replacement.",
-        "Inside every old person is a young person wondering what the hell happened.",
-        "You are cleverly disguised as a responsible adult.",
-        "Tomorrow at breakfast, listen carefully: do what the rice krispies tell you to.",
-        "Drive like hell, you will get there.",
-        "Hard work pays off in the future. Laziness pays off now.",
-        "You think it’s a secret, but they know.",
-        "If a turtle doesn’t have a shell, is it naked or homeless?",
-        "Change is inevitable, except for vending machines.",
-        "A fanatic is one who can’t change his mind and won’t change the subject.",
-        "If you look back, you’ll soon be going that way.",
-        "An alien of some sort will be appearing to you shortly.",
-        "Courage is not the absence of fear; it is the conquest of it.",
-        "Nothing is so much to be feared as fear.",
-        "All things are difficult before they are easy.",
-        "The real kindness comes from within you.",
-        "A ship in harbor is safe, but that’s not why ships are built.",
-        "It's okay to look at the past and future. Just don’t stare.",
-        "A wise person needs either good manners or fast reflexes.",
-        "You will soon have an out of money experience.",
-        "One tequila, two tequila, three tequila, floor.",
-        "The older you get, the better you were.",
-        "Age is high price to pay for maturity.",
-        "Procrastination is art of keeping up with yesterday.",
-        "A fool and his money are soon partying.",
-        "Do not mistake temptation for opportunity.",
-        "Flattery will go far tonight.",
-        "He who laughs at himself never runs out of things to laugh at.",
-        "He who laughs last is laughing at you.",
-        "He who throws dirt is losing ground.",
-        "Someone will invite you to a Karaoke party.",
-        "That wasn’t chicken.",
-        "There is no mistake so great as that of being always right.",
-        "You don’t need strength to let go of something. What you really need is understanding.",
-        "If you want the rainbow, you have to tolerate the rain.",
-        "Fear is interest paid on a debt you may not owe.",
-        "Hardly anyone knows how much is gained by ignoring the future.",
-        "The wise man is the one that makes you think that he is dumb.",
-        "The usefulness of a cup is in its emptiness.",
-        "He who throws mud loses ground.",
-        "Success lies in the hands of those who wants it.",
-        "To avoid criticism, do nothing, say nothing, be nothing.",
-        "One that would have the fruit must climb the tree.",
-        "Probability of being seen directly proportional to stupidity of act.",
-        "He who dies with most toys, still dies.",
-        "Person who rests on laurels gets thorn in backside.",
-        "Practice safe eating. Always use condiments.",
-        "Person who give self-haircut after rice wine will be buzzed.",
-        "Politicians are like diapers: change often, and for same reason.",
-        "Fat person not afraid of heights – afraid of widths.",
-        "You have kleptomania. Take something for it.",
-        "When marriage outlawed, only outlaws have in-laws.",
-        "We don’t know the future, but here’s a cookie.",
-        "The world may be your oyster, but it doesn’t mean you’ll get its pearl.",
-        "You will be hungry again in one hour.",
-        "Don’t behave with cold manners.",
-        "Don’t forget you are always on our minds.",
-        "Message not found? Abort, Retry, Ignore.",
-        "It takes less time to do a thing right than it does to explain why you did it wrong.",
-        "Big journeys begin with a single step.",
-        "Of all our human resources, the most precious is the desire to improve.",
-        "Do the thing you fear, and the death of fear is certain."
-    ));
+public class MessageService implements MeterBinder {
+    private static final String DEFAULT_CORPUS = "messages/phrases.txt";
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Value("${message.corpus.reload-interval:10000}")
+    private long reloadInterval;
+
+    private final Resource location;
+    private final Path corpusFile;
+
+    // DOC - each corpus is immutable and replaced as a whole (copy on write), so it
+    //       is safely shared between request threads without locking; readers
+    //       take one reference and use it for the whole selection
+    private volatile PhraseCorpus corpus;
+    private volatile Object corpusVersion;
+
+    private PhraseSequences phraseSequences;
+    private ScheduledExecutorService reloader;
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadNanos = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    // DOC - phrases are stored JSON escaped, so a message's JSON encoding is the
+    //       phrase bytes framed by a constant prefix and a per-origin suffix
+    //       rather than a run through Jackson on every response
+    private final byte[] textPrefix = MessageJson.textPrefix();
+    private final Map<String, byte[]> originSuffixes = new HashMap<>();
+
+    /**
+     * Use the built-in corpus.
+     */
+    public MessageService() {
+        this(new ClassPathResource(DEFAULT_CORPUS));
+    }
+
+    /**
+     * @param corpusLocation Text (one phrase per line) or {@code .corpus} file.
+     */
+    @Autowired
+    public MessageService(@Value("${message.corpus.location:classpath:" + DEFAULT_CORPUS + "}") Resource corpusLocation) {
+        this.location = corpusLocation;
+        this.corpusFile = fileOf(corpusLocation);
+        this.corpusVersion = versionOf(corpusFile);
+        this.corpus = load(corpusLocation);
+        for (String origin : new String[]{"public", "private"}) {
+            originSuffixes.put(origin, MessageJson.originSuffix(origin));
+        }
+        logger.info("Loaded {} phrases from {}", corpus.size(), corpusLocation.getDescription());
+    }
+
+    @Autowired
+    public void setPhraseSequences(PhraseSequences phraseSequences) {
+        this.phraseSequences = phraseSequences;
+    }
+
+    @PostConstruct
+    public void startReloading() {
+        if (corpusFile == null || reloadInterval <= 0) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "corpus-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadInterval, reloadInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopReloading() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Reload the corpus from its location and publish it.
+     *
+     * @return {@code false} if the corpus could not be loaded; the current corpus remains in use.
+     */
+    public synchronized boolean reload() {
+        Object version = versionOf(corpusFile);
+        long start = System.nanoTime();
+        try {
+            PhraseCorpus reloaded = load(location);
+            corpus = reloaded;
+            long elapsed = System.nanoTime() - start;
+            reloads.increment();
+            reloadNanos.add(elapsed);
+            logger.info("Reloaded {} phrases from {} in {}ms", reloaded.size(), location.getDescription(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return true;
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            logger.warn("Phrase corpus reload failed, keeping the current corpus: {}", e.getMessage());
+            return false;
+        } finally {
+            // DOC - a failed version is not retried until the file changes again
+            corpusVersion = version;
+        }
+    }
+
+    /**
+     * Phrase corpus metrics (message.corpus.*).
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("message.corpus.size", this, MessageService::getPhraseCount)
+                .description("Phrases in the current corpus")
+                .register(registry);
+        FunctionTimer.builder("message.corpus.reload", this,
+                        s -> s.reloads.sum(), s -> s.reloadNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Duration of phrase corpus reloads")
+                .register(registry);
+        FunctionCounter.builder("message.corpus.reload.failures", reloadFailures, LongAdder::sum)
+                .description("Phrase corpus reloads that failed")
+                .register(registry);
+    }
 
     /**
      * Randomly generates a message
@@ -105,7 +178,107 @@ public class MessageService {
      * @return returns a random string
      */
     public String getPhrase() {
-        Random random = new Random();
-        return phrases.get(random.nextInt(phrases.size()));
+        PhraseCorpus corpus = this.corpus;
+        // DOC - ThreadLocalRandom is per thread: no allocation and no shared seed to contend on
+        return corpus.phrase(corpus.sample(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Randomly generates a message and returns its JSON encoding (as written by
+     * Jackson for a {@link com.showbie.common.models.Message}).
+     *
+     * @param origin Message origin, {@code public} or {@code private}.
+     * @return UTF-8 JSON message.
+     */
+    public byte[] getPhraseJson(String origin) {
+        byte[] originSuffix = originSuffixes.get(origin);
+        if (originSuffix == null) {
+            throw new IllegalArgumentException("Unsupported message origin: " + origin);
+        }
+
+        PhraseCorpus corpus = this.corpus;
+        return encode(corpus, corpus.sample(ThreadLocalRandom.current()), originSuffix);
+    }
+
+    /**
+     * {@link #getPhraseJson(String)} for a client; with no-repeat walks enabled
+     * the client is never given the same phrase twice in a row, and phrase
+     * weights are ignored.
+     *
+     * @param origin    Message origin, {@code public} or {@code private}.
+     * @param clientKey Client identifier, or {@code null} if unknown.
+     * @return UTF-8 JSON message.
+     */
+    public byte[] getPhraseJson(String origin, String clientKey) {
+        if (clientKey == null || phraseSequences == null || !phraseSequences.isEnabled()) {
+            return getPhraseJson(origin);
+        }
+        byte[] originSuffix = originSuffixes.get(origin);
+        if (originSuffix == null) {
+            throw new IllegalArgumentException("Unsupported message origin: " + origin);
+        }
+
+        PhraseCorpus corpus = this.corpus;
+        return encode(corpus, phraseSequences.next(clientKey, corpus.size(), System.currentTimeMillis()), originSuffix);
+    }
+
+    /**
+     * @return Number of phrases.
+     */
+    public int getPhraseCount() {
+        return corpus.size();
+    }
+
+    private byte[] encode(PhraseCorpus corpus, int index, byte[] originSuffix) {
+        int length = corpus.length(index);
+        byte[] json = new byte[textPrefix.length + length + originSuffix.length];
+        System.arraycopy(textPrefix, 0, json, 0, textPrefix.length);
+        corpus.copy(index, json, textPrefix.length);
+        System.arraycopy(originSuffix, 0, json, textPrefix.length + length, originSuffix.length);
+        return json;
+    }
+
+    private void reloadIfChanged() {
+        if (!Objects.equals(versionOf(corpusFile), corpusVersion)) {
+            reload();
+        }
+    }
+
+    private static Path fileOf(Resource location) {
+        try {
+            return location.isFile() ? location.getFile().toPath() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return What identifies a version of the corpus file (file identity, size
+     * and modification time), or {@code null} if unavailable.
+     */
+    private static Object versionOf(Path file) {
+        if (file == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static PhraseCorpus load(Resource location) {
+        try {
+            String filename = location.getFilename();
+            if (filename != null && filename.endsWith(".corpus")) {
+                return PhraseCorpus.map(location.getFile().toPath());
+            }
+            try (InputStream text = location.getInputStream()) {
+                return PhraseCorpus.read(text);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load phrase corpus " + location.getDescription(), e);
+        }
     }
 }
@@ -0,0 +1,321 @@
+package com.showbie.common.services;
+
+import com.showbie.common.models.MessageJson;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable phrase corpus stored as an offset index plus the phrases' UTF-8 bytes,
+ * with no object per phrase.
+ * <p>
+ * Phrases are stored JSON escaped (the content of a JSON string, without quotes)
+ * so they can be copied into responses as is (see
+ * {@link MessageService#getPhraseJson(String)}).
+ * <p>
+ * A phrase may be given a weight (a non-negative decimal) after a tab at the end
+ * of its line, e.g. {@code Fortune favours the bold.<TAB>2.5}; unweighted phrases
+ * have weight 1. {@link #sample(Random)} then selects phrases in proportion to
+ * their weights in constant time, using an {@link AliasTable} built once with
+ * the corpus (and stored in corpus files).
+ * <p>
+ * A corpus file ({@code .corpus}) is memory-mapped rather than read: opening it
+ * only checks the header and index, and the operating system pages phrases in as they are
+ * selected, so startup time and heap use do not grow with the corpus. The layout
+ * (big-endian) is
+ * <pre>
+ *   int magic ("PHRC"), int version (2), int count, int flags (1 if weighted)
+ *   int[count + 1] offsets of each phrase from the start of the phrase bytes
+ *   byte[] phrase bytes
+ *   if weighted: int[count] alias table probabilities, int[count] aliases
+ * </pre>
+ * and is limited to 2GB (version 1 files, without flags or weights, are still
+ * read). Corpus files are built from text files (one phrase per line) with
+ * {@link #main(String[])}.
+ */
+public final class PhraseCorpus {
+    private static final int MAGIC = 0x50485243; // "PHRC"
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = 16;
+    private static final int V1_HEADER_LENGTH = 12;
+    private static final int WEIGHTED = 1;
+    private static final Pattern WEIGHT = Pattern.compile("\\t(\\d+(?:\\.\\d+)?)\\s*$");
+
+    private final int count;
+    private final IntBuffer offsets;
+    private final ByteBuffer phrases;
+    private final AliasTable weights;
+
+    private PhraseCorpus(int count, IntBuffer offsets, ByteBuffer phrases, AliasTable weights) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Phrase corpus is empty");
+        }
+        if (!validIndex(count, offsets, phrases.limit())) {
+            throw new IllegalArgumentException("Phrase corpus index does not match its phrases");
+        }
+        this.count = count;
+        this.offsets = offsets;
+        this.phrases = phrases;
+        this.weights = weights;
+    }
+
+    /**
+     * Load a text corpus (UTF-8, one phrase per line with an optional weight,
+     * blank lines ignored) onto the heap.
+     */
+    public static PhraseCorpus read(InputStream text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] index = new int[64];
+        Weights weights = new Weights();
+        int count = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(text, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            bytes.write(MessageJson.escape(weights.add(count, line)));
+            if (++count == index.length) {
+                index = Arrays.copyOf(index, count * 2);
+            }
+            index[count] = bytes.size();
+        }
+        return new PhraseCorpus(count, IntBuffer.wrap(index, 0, count + 1).slice(), ByteBuffer.wrap(bytes.toByteArray()),
+                weights.table(count));
+    }
+
+    /**
+     * Memory-map a corpus file.
+     */
+    public static PhraseCorpus map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Phrase corpus files are limited to 2GB: " + file);
+            }
+            // DOC - the mapping remains valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < V1_HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a phrase corpus file: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version != 1 && version != VERSION) {
+                throw new IllegalArgumentException("Unsupported phrase corpus file version " + version + ": " + file);
+            }
+            int headerLength = version == 1 ? V1_HEADER_LENGTH : HEADER_LENGTH;
+            int count = buffer.getInt(8);
+            boolean weighted = version != 1 && buffer.limit() >= headerLength && (buffer.getInt(12) & WEIGHTED) != 0;
+            long phrasesStart = headerLength + 4L * (count + 1);
+            if (count < 0 || phrasesStart > buffer.limit()) {
+                throw new IllegalArgumentException("Truncated phrase corpus file: " + file);
+            }
+            IntBuffer offsets = buffer.position(headerLength).limit((int) phrasesStart).slice().asIntBuffer();
+            long phrasesEnd = weighted ? phrasesStart + offsets.get(count) : buffer.capacity();
+            long weightsEnd = weighted ? phrasesEnd + 8L * count : phrasesEnd;
+            if (phrasesEnd < phrasesStart || weightsEnd != buffer.capacity()) {
+                throw new IllegalArgumentException("Truncated phrase corpus file: " + file);
+            }
+            // DOC - checked here, once per load, so a corrupt file fails now rather than on requests
+            if (!validIndex(count, offsets, (int) (phrasesEnd - phrasesStart))) {
+                throw new IllegalArgumentException("Corrupt phrase corpus index: " + file);
+            }
+            ByteBuffer phrases = buffer.clear().position((int) phrasesStart).limit((int) phrasesEnd).slice();
+            AliasTable weights = null;
+            if (weighted) {
+                IntBuffer table = buffer.clear().position((int) phrasesEnd).slice().asIntBuffer();
+                weights = new AliasTable(count, table.limit(count).slice(), table.clear().position(count).slice());
+            }
+            return new PhraseCorpus(count, offsets, phrases, weights);
+        }
+    }
+
+    /**
+     * Whether the offsets start at 0, never decrease and end at the phrase bytes' length.
+     */
+    private static boolean validIndex(int count, IntBuffer offsets, int length) {
+        if (offsets.get(0) != 0 || offsets.get(count) != length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (offsets.get(i) > offsets.get(i + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write a corpus file. Phrase bytes are streamed to a temporary file while
+     * the index (and any weights) is built, so only the index is held in memory.
+     * <p>
+     * The file is replaced by an atomic rename, never rewritten in place: a
+     * running service may have the previous version mapped (see
+     * {@link MessageService#reload()}), and rewriting a mapped file would change
+     * or truncate phrases under it.
+     */
+    public static void write(Iterator<String> phrases, Path file) throws IOException {
+        // DOC - lines use the text corpus format, so a phrase may carry a weight
+        Path directory = file.toAbsolutePath().getParent();
+        Path data = Files.createTempFile(directory, "phrases", ".tmp");
+        Path corpus = Files.createTempFile(directory, "phrases", ".tmp");
+        try {
+            int[] index = new int[1024];
+            Weights weights = new Weights();
+            int count = 0;
+            long length = 0;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(data))) {
+                while (phrases.hasNext()) {
+                    byte[] phrase = MessageJson.escape(weights.add(count, phrases.next()));
+                    out.write(phrase);
+                    length += phrase.length;
+                    if (HEADER_LENGTH + 12L * (count + 2) + length > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Phrase corpus files are limited to 2GB");
+                    }
+                    if (++count == index.length) {
+                        index = Arrays.copyOf(index, count * 2);
+                    }
+                    index[count] = (int) length;
+                }
+            }
+            AliasTable table = count > 0 ? weights.table(count) : null;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(corpus)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                out.writeInt(table != null ? WEIGHTED : 0);
+                for (int i = 0; i <= count; i++) {
+                    out.writeInt(index[i]);
+                }
+                Files.copy(data, out);
+                if (table != null) {
+                    for (int i = 0; i < count; i++) {
+                        out.writeInt(table.probability(i));
+                    }
+                    for (int i = 0; i < count; i++) {
+                        out.writeInt(table.alias(i));
+                    }
+                }
+            }
+            Files.move(corpus, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(data);
+            Files.deleteIfExists(corpus);
+        }
+    }
+
+    /**
+     * @return Number of phrases.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return Whether phrases have weights (otherwise they are equally likely).
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /**
+     * @return A random phrase index, chosen in proportion to the phrase weights.
+     */
+    public int sample(Random random) {
+        return weights == null ? random.nextInt(count) : weights.sample(random);
+    }
+
+    /**
+     * @return Length of the (JSON escaped) phrase in bytes.
+     */
+    public int length(int index) {
+        return offsets.get(index + 1) - offsets.get(index);
+    }
+
+    /**
+     * Copy the (JSON escaped) phrase bytes into {@code target} at {@code position}.
+     */
+    public void copy(int index, byte[] target, int position) {
+        int offset = offsets.get(index);
+        phrases.get(offset, target, position, offsets.get(index + 1) - offset);
+    }
+
+    /**
+     * @return The phrase.
+     */
+    public String phrase(int index) {
+        byte[] escaped = new byte[length(index)];
+        copy(index, escaped, 0);
+        return MessageJson.unescape(escaped);
+    }
+
+    /**
+     * Build a corpus file from a text file (UTF-8, one phrase per line with an
+     * optional weight, blank lines ignored).
+     * <p>
+     * Usage: {@code PhraseCorpus <phrases.txt> <phrases.corpus>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PhraseCorpus <phrases.txt> <phrases.corpus>");
+            System.exit(2);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            Iterator<String> lines = reader.lines().filter(line -> !line.trim().isEmpty()).iterator();
+            write(lines, Paths.get(args[1]));
+        }
+    }
+
+    /**
+     * Phrase weights collected while a corpus is read.
+     */
+    private static final class Weights {
+        private double[] weights = new double[0];
+        private boolean weighted;
+
+        /**
+         * Record the weight of phrase {@code index}.
+         *
+         * @return The phrase, without its weight.
+         */
+        String add(int index, String line) {
+            if (index == weights.length) {
+                weights = Arrays.copyOf(weights, Math.max(64, index * 2));
+            }
+            Matcher weight = WEIGHT.matcher(line);
+            if (!weight.find()) {
+                weights[index] = 1;
+                return line;
+            }
+            weights[index] = Double.parseDouble(weight.group(1));
+            weighted = true;
+            return line.substring(0, weight.start());
+        }
+
+        /**
+         * @return Alias table for the weights, or {@code null} if no phrase had a weight.
+         */
+        AliasTable table(int count) {
+            return weighted ? AliasTable.build(weights, count) : null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.showbie.common.services;
+
+/**
+ * Keyed pseudo-random permutations of {@code [0, size)} computed one position at
+ * a time, so walking a shuffled corpus needs only a seed and a position rather
+ * than a shuffled copy of the corpus.
+ * <p>
+ * Positions are permuted with a 4 round balanced Feistel network over the
+ * smallest even number of bits covering {@code size}, cycle walking (re-applying
+ * the network) until the result falls within the corpus; the network's domain is
+ * less than four times {@code size}, so this takes under four rounds on average.
+ * <p>
+ * A walk continues past the end of the corpus with a fresh permutation per pass
+ * (cycle), arranged so a pass never starts with the phrase that ended the
+ * previous one.
+ */
+final class PhrasePermutation {
+    private static final int ROUNDS = 4;
+
+    private PhrasePermutation() {
+    }
+
+    /**
+     * @param seed     Walk seed.
+     * @param position Position in the walk (any non-negative value).
+     * @param size     Number of phrases.
+     * @return Phrase index at the position; consecutive positions never repeat a
+     * phrase (given two or more phrases) and each pass visits every phrase once.
+     */
+    static int index(long seed, long position, int size) {
+        if (size < 3) {
+            // DOC - with two phrases the only order that never repeats is alternation
+            return size < 2 ? 0 : (int) ((seed + position) & 1);
+        }
+        long cycle = position / size;
+        int offset = (int) (position % size);
+        if (cycle > 0 && offset < 2) {
+            // DOC - the pass's first two phrases swap if the first would repeat the previous pass's last
+            int previousLast = permute(cycleSeed(seed, cycle - 1), size - 1, size);
+            if (permute(cycleSeed(seed, cycle), 0, size) == previousLast) {
+                offset = 1 - offset;
+            }
+        }
+        return permute(cycleSeed(seed, cycle), offset, size);
+    }
+
+    /**
+     * @return Image of {@code value} under the permutation of {@code [0, size)} keyed by {@code key}.
+     */
+    static int permute(long key, int value, int size) {
+        int halfBits = (bitsFor(size) + 1) / 2;
+        long halfMask = (1L << halfBits) - 1;
+        long x = value;
+        do {
+            long left = x >>> halfBits;
+            long right = x & halfMask;
+            for (int round = 0; round < ROUNDS; round++) {
+                long mixed = left ^ (mix(key + round * 0x9e3779b97f4a7c15L + right) & halfMask);
+                left = right;
+                right = mixed;
+            }
+            x = (left << halfBits) | right;
+        } while (x >= size);
+        return (int) x;
+    }
+
+    private static int bitsFor(int size) {
+        return Math.max(2, 32 - Integer.numberOfLeadingZeros(size - 1));
+    }
+
+    private static long cycleSeed(long seed, long cycle) {
+        return mix(seed ^ mix(cycle));
+    }
+
+    /**
+     * SplitMix64 finalizer: a fast 64 bit mixing function.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
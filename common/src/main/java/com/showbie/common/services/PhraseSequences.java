@@ -0,0 +1,148 @@
+package com.showbie.common.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded store of per-client walks through the phrase corpus, so a client is
+ * not served the same phrase twice in a row (see {@link MessageService#getPhraseJson(String, String)}).
+ * <p>
+ * Each client walks its own {@link PhrasePermutation} of the corpus, which is
+ * fully described by a random seed and a position: a walk costs a few dozen
+ * bytes however large the corpus is. Clients are identified by a 64 bit hash of
+ * their key. Walks idle for longer than the idle timeout are evicted first, then
+ * a batch of arbitrary walks whenever the store reaches its maximum size; an
+ * evicted client simply starts a new walk.
+ */
+@Component
+public class PhraseSequences implements MeterBinder {
+    /* DOC - when full we evict this fraction of the walks in one go so that a
+     *       store full of active clients does not sweep on every new client.
+     */
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final int maximumSize;
+    private final long idleTimeout;
+    private final Map<Long, Walk> walks = new ConcurrentHashMap<>();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize Maximum number of clients to track; zero disables no-repeat walks.
+     * @param idleTimeout Milliseconds after which an idle client's walk may be evicted.
+     */
+    public PhraseSequences(@Value("${message.no-repeat.max-clients:0}") int maximumSize,
+                           @Value("${message.no-repeat.idle-timeout:3600000}") long idleTimeout) {
+        this.maximumSize = Math.max(0, maximumSize);
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @return Whether clients get no-repeat walks.
+     */
+    public boolean isEnabled() {
+        return maximumSize > 0;
+    }
+
+    /**
+     * Advance the client's walk.
+     *
+     * @param clientKey Client identifier.
+     * @param size      Number of phrases in the corpus.
+     * @param now       Current time in milliseconds.
+     * @return Index of the client's next phrase.
+     */
+    public int next(@NonNull String clientKey, int size, long now) {
+        Long key = hash(clientKey);
+        Walk walk = walks.get(key);
+        if (walk == null) {
+            if (walks.size() >= maximumSize) {
+                evict(now);
+            }
+            walk = walks.computeIfAbsent(key, k -> new Walk(ThreadLocalRandom.current().nextLong()));
+        }
+        walk.lastUsed = now;
+        return PhrasePermutation.index(walk.seed, Walk.POSITION.getAndIncrement(walk), size);
+    }
+
+    /**
+     * Number of clients currently tracked.
+     */
+    public int size() {
+        return walks.size();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("message.no-repeat.clients", walks, Map::size)
+                .description("Clients currently walking the phrase corpus without repeats")
+                .register(registry);
+        FunctionCounter.builder("message.no-repeat.evictions", evictions, LongAdder::sum)
+                .description("Client walks evicted (idle or over capacity)")
+                .register(registry);
+    }
+
+    /**
+     * Make room for a new client: drop idle walks first and, if the store is
+     * still full, an arbitrary batch of active ones.
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<Long, Walk>> iterator = walks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue().lastUsed >= idleTimeout) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        int excess = walks.size() - maximumSize + Math.max(1, maximumSize / EVICTION_BATCH_DIVISOR);
+        iterator = walks.entrySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+            excess--;
+        }
+    }
+
+    /**
+     * FNV-1a over the key's chars, read in place rather than copied out as
+     * bytes, finished with a 64 bit mix.
+     */
+    private static long hash(String clientKey) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, length = clientKey.length(); i < length; i++) {
+            hash = (hash ^ clientKey.charAt(i)) * 0x100000001b3L;
+        }
+        return PhrasePermutation.mix(hash);
+    }
+
+    private static final class Walk {
+        private static final AtomicLongFieldUpdater<Walk> POSITION =
+                AtomicLongFieldUpdater.newUpdater(Walk.class, "position");
+
+        private final long seed;
+        private volatile long position;
+        private volatile long lastUsed;
+
+        private Walk(long seed) {
+            this.seed = seed;
+        }
+    }
+}
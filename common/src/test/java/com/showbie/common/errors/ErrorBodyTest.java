@@ -0,0 +1,54 @@
+package com.showbie.common.errors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class ErrorBodyTest {
+    // DOC - as configured by Spring Boot
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void render_matchesJackson() throws Exception {
+        // arrange
+        ErrorBody body = ErrorBody.of(HttpStatus.UNAUTHORIZED, RequestErrorController.UNAUTHENTICATED_MESSAGE);
+
+        for (long now : new long[]{0L, 1614600000007L, 1614600000999L, 1614600001050L, 4102444799999L}) {
+            // act
+            String rendered = new String(body.render(now), StandardCharsets.UTF_8);
+
+            // assert
+            assertThat(rendered).isEqualTo(jackson(now, HttpStatus.UNAUTHORIZED, RequestErrorController.UNAUTHENTICATED_MESSAGE));
+        }
+    }
+
+    @Test
+    public void render_escapesMessage() throws Exception {
+        // arrange
+        ErrorBody body = ErrorBody.of(HttpStatus.NOT_FOUND, "Can't find \"that\" – sorry");
+
+        // act
+        String rendered = new String(body.render(1614600000123L), StandardCharsets.UTF_8);
+
+        // assert
+        assertThat(rendered).isEqualTo(jackson(1614600000123L, HttpStatus.NOT_FOUND, "Can't find \"that\" – sorry"));
+        assertThat(body.getStatus()).isEqualTo(404);
+    }
+
+    private String jackson(long now, HttpStatus status, String message) throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("timestamp", new Date(now));
+        attributes.put("status", status.value());
+        attributes.put("error", status.getReasonPhrase());
+        attributes.put("message", message);
+        return objectMapper.writeValueAsString(attributes);
+    }
+}
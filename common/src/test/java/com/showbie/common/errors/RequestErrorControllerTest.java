@@ -0,0 +1,116 @@
+package com.showbie.common.errors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.RequestDispatcher;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class RequestErrorControllerTest {
+    // DOC - as configured by Spring Boot
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final RequestErrorController controller = new RequestErrorController(new DefaultErrorAttributes());
+
+    @Test
+    public void handleError_unauthorized() throws Exception {
+        // act
+        ResponseEntity<byte[]> response = controller.handleError(errorRequest(401));
+
+        // assert
+        assertMatches(response, HttpStatus.UNAUTHORIZED, RequestErrorController.UNAUTHENTICATED_MESSAGE);
+    }
+
+    @Test
+    public void handleError_notFound() throws Exception {
+        // act
+        ResponseEntity<byte[]> response = controller.handleError(errorRequest(404));
+
+        // assert
+        assertMatches(response, HttpStatus.NOT_FOUND, RequestErrorController.NOT_FOUND_MESSAGE);
+    }
+
+    @Test
+    public void handleError_unknownStatus_keepsStatusWithInternalServerErrorBody() throws Exception {
+        // act
+        ResponseEntity<byte[]> response = controller.handleError(errorRequest(418));
+
+        // assert -- the response keeps the error's status, only the body says 500
+        assertMatches(response, HttpStatus.I_AM_A_TEAPOT, HttpStatus.INTERNAL_SERVER_ERROR,
+                RequestErrorController.INTERNAL_SERVER_ERROR_MESSAGE);
+    }
+
+    @Test
+    public void handleException_internalServerError() throws Exception {
+        // act
+        ResponseEntity<byte[]> response = controller.handleException(new IllegalStateException("Boom"));
+
+        // assert
+        assertMatches(response, HttpStatus.INTERNAL_SERVER_ERROR, RequestErrorController.INTERNAL_SERVER_ERROR_MESSAGE);
+    }
+
+    @Test
+    public void handleResponseStatusException_keepsStatusAndReason() throws Exception {
+        // arrange
+        ResponseStatusException ex = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open message streams");
+
+        // act
+        ResponseEntity<byte[]> first = controller.handleResponseStatusException(ex);
+        ResponseEntity<byte[]> second = controller.handleResponseStatusException(ex);
+
+        // assert
+        assertMatches(first, HttpStatus.SERVICE_UNAVAILABLE, "Too many open message streams");
+        assertMatches(second, HttpStatus.SERVICE_UNAVAILABLE, "Too many open message streams");
+    }
+
+    /**
+     * Asserts the response body is what the previous Map based response serialized to: the same
+     * fields and values, and the same bytes for the body's own timestamp.
+     */
+    private void assertMatches(ResponseEntity<byte[]> response, HttpStatus status, String message) throws Exception {
+        assertMatches(response, status, status, message);
+    }
+
+    private void assertMatches(ResponseEntity<byte[]> response, HttpStatus responseStatus, HttpStatus status,
+                               String message) throws Exception {
+        assertThat(response.getStatusCode()).isEqualTo(responseStatus);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertThat(body.size()).isEqualTo(4);
+        assertThat(body.get("status").intValue()).isEqualTo(status.value());
+        assertThat(body.get("error").textValue()).isEqualTo(status.getReasonPhrase());
+        assertThat(body.get("message").textValue()).isEqualTo(message);
+
+        Date timestamp = objectMapper.convertValue(body.get("timestamp").textValue(), Date.class);
+        assertThat(Math.abs(System.currentTimeMillis() - timestamp.getTime()) < 60_000).isTrue();
+        assertThat(new String(response.getBody(), "UTF-8")).isEqualTo(legacy(timestamp, status, message));
+    }
+
+    private String legacy(Date timestamp, HttpStatus status, String message) throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("timestamp", timestamp);
+        attributes.put("status", status.value());
+        attributes.put("error", status.getReasonPhrase());
+        attributes.put("message", message);
+        return objectMapper.writeValueAsString(attributes);
+    }
+
+    private static MockHttpServletRequest errorRequest(int status) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error");
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, status);
+        return request;
+    }
+}
@@ -0,0 +1,58 @@
+package com.showbie.common.http.client;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class AbortableRequestTest {
+
+    @Test
+    public void abort_inFlight_abortsRequest() {
+        // arrange
+        AbortableRequest abortable = new AbortableRequest();
+        HttpGet request = new HttpGet("http://localhost/message");
+
+        // act
+        abortable.run(() -> {
+            AbortableRequest.created(request);
+            abortable.abort();
+            return null;
+        });
+
+        // assert
+        assertThat(request.isAborted()).isTrue();
+    }
+
+    @Test
+    public void abort_beforeStart_abortsRequestWhenCreated() {
+        // arrange
+        AbortableRequest abortable = new AbortableRequest();
+        HttpGet request = new HttpGet("http://localhost/message");
+
+        // act
+        abortable.abort();
+        abortable.run(() -> {
+            AbortableRequest.created(request);
+            return null;
+        });
+
+        // assert
+        assertThat(request.isAborted()).isTrue();
+    }
+
+    @Test
+    public void created_outsideRun_isNotTracked() {
+        // arrange
+        AbortableRequest abortable = new AbortableRequest();
+        HttpGet request = new HttpGet("http://localhost/message");
+        abortable.run(() -> null);
+
+        // act
+        AbortableRequest.created(request);
+        abortable.abort();
+
+        // assert
+        assertThat(request.isAborted()).isFalse();
+    }
+}
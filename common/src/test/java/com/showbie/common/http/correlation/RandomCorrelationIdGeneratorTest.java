@@ -0,0 +1,42 @@
+package com.showbie.common.http.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class RandomCorrelationIdGeneratorTest {
+
+    private final RandomCorrelationIdGenerator generator = new RandomCorrelationIdGenerator();
+
+    @Test
+    public void next_isVersion4Uuid() {
+        for (int i = 0; i < 1000; i++) {
+            // act
+            String id = generator.next();
+
+            // assert -- formatted exactly as UUID would format it
+            UUID uuid = UUID.fromString(id);
+            assertThat(uuid.toString()).isEqualTo(id);
+            assertThat(uuid.version()).isEqualTo(4);
+            assertThat(uuid.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void next_unique() {
+        // arrange
+        Set<String> ids = new HashSet<>();
+
+        // act
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.next());
+        }
+
+        // assert
+        assertThat(ids.size()).isEqualTo(100_000);
+    }
+}
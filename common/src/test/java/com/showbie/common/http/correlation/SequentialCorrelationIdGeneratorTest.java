@@ -0,0 +1,64 @@
+package com.showbie.common.http.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class SequentialCorrelationIdGeneratorTest {
+
+    @Test
+    public void next_prefixedAndOrdered() {
+        // arrange
+        SequentialCorrelationIdGenerator generator = new SequentialCorrelationIdGenerator("node-1");
+
+        // act
+        String first = generator.next();
+        String second = generator.next();
+
+        // assert
+        assertThat(first).matches("node-1-[0-9a-f]{16}");
+        assertThat(Long.parseUnsignedLong(second.substring(7), 16) - Long.parseUnsignedLong(first.substring(7), 16))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    public void next_noNode_randomPrefix() {
+        // act
+        String first = new SequentialCorrelationIdGenerator("").next();
+        String second = new SequentialCorrelationIdGenerator(null).next();
+
+        // assert
+        assertThat(first).matches("[0-9a-f]{8}-[0-9a-f]{16}");
+        assertThat(second).matches("[0-9a-f]{8}-[0-9a-f]{16}");
+        assertThat(first.substring(0, 8)).isNotEqualTo(second.substring(0, 8));
+    }
+
+    @Test
+    public void next_uniqueAcrossThreads() throws InterruptedException {
+        // arrange
+        SequentialCorrelationIdGenerator generator = new SequentialCorrelationIdGenerator("node");
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.next());
+                }
+            }));
+        }
+
+        // act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // assert
+        assertThat(ids.size()).isEqualTo(80_000);
+    }
+}
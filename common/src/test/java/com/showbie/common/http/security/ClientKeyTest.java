@@ -0,0 +1,58 @@
+package com.showbie.common.http.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class ClientKeyTest {
+    private final ScopeRegistry scopeRegistry = new ScopeRegistry(Collections.singletonList("A"));
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void of_clientKeyHeader_used() {
+        // arrange
+        request.addHeader(ClientKey.CLIENT_KEY_HEADER, "client");
+        authenticate("subject");
+
+        // act and assert
+        assertThat(ClientKey.of(request)).isEqualTo("client");
+    }
+
+    @Test
+    public void of_noHeader_tokenSubject() {
+        // arrange
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        authenticate("subject");
+
+        // act and assert -- the same for any token of the subject
+        assertThat(ClientKey.of(request)).isEqualTo("subject");
+    }
+
+    @Test
+    public void of_noHeaderNoSubject_notIdentified() {
+        // arrange
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        authenticate(null);
+
+        // act and assert
+        assertThat(ClientKey.of(request)).isNull();
+    }
+
+    private void authenticate(String subject) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new TokenAuthentication(scopeRegistry, 0b1, Long.MAX_VALUE, subject));
+        SecurityContextHolder.setContext(context);
+    }
+}
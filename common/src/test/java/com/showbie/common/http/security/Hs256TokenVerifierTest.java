@@ -0,0 +1,258 @@
+package com.showbie.common.http.security;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Covers the token shapes the {@link TokenParserTest} does not reach, where the
+ * hand written verifier could diverge from jjwt.
+ */
+public class Hs256TokenVerifierTest {
+
+    private final String signingKey = "password";
+    private final Hs256TokenVerifier verifier = new Hs256TokenVerifier(signingKey, Arrays.asList("A", "B"));
+
+    @Test
+    public void validToken_success() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims(now, "A", "B"));
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNotNull();
+        assertThat(verified.getScopes()).isEqualTo(Arrays.asList("A", "B"));
+        assertThat(verified.getIssuedAt()).isEqualTo(now / 1000 * 1000 - 60000);
+        assertThat(verified.getExpiresAt()).isEqualTo(now / 1000 * 1000 + 60000);
+        assertThat(verified.getSubject()).isNull();
+    }
+
+    @Test
+    public void additionalClaims_success() {
+        // arrange
+        long now = System.currentTimeMillis();
+        Map<String, Object> claims = claims(now, "B");
+        claims.put("sub", "someone \"quoted\"");
+        claims.put("nested", Collections.singletonMap("list", Arrays.asList(1, 2.5, true, null, "x")));
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims);
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNotNull();
+        assertThat(verified.getScopes()).isEqualTo(Collections.singletonList("B"));
+        assertThat(verified.getSubject()).isEqualTo("someone \"quoted\"");
+    }
+
+    @Test
+    public void nonStringSubject_ignored() {
+        // arrange
+        long now = System.currentTimeMillis();
+        Map<String, Object> claims = claims(now, "A");
+        claims.put("sub", Collections.singletonMap("id", 42));
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims);
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNotNull();
+        assertThat(verified.getSubject()).isNull();
+    }
+
+    @Test
+    public void notBeforeInFuture_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        Map<String, Object> claims = claims(now, "A");
+        claims.put("nbf", now / 1000 + 30);
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims);
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNull();
+    }
+
+    @Test
+    public void tamperedPayload_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims(now, "A"));
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"A\"", "\"B\"");
+        String tampered = parts[0] + "." + base64Url(payload) + "." + parts[2];
+
+        // act
+        VerifiedToken verified = verifier.verify(tampered, now);
+
+        // assert
+        assertThat(verified).isNull();
+    }
+
+    @Test
+    public void otherAlgorithm_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String token = createToken(SignatureAlgorithm.HS512, signingKey, claims(now, "A"));
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNull();
+    }
+
+    @Test
+    public void algorithmNoneWithSignature_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims(now, "A"));
+        String[] parts = token.split("\\.");
+        String forged = base64Url("{\"alg\":\"none\"}") + "." + parts[1] + "." + parts[2];
+
+        // act
+        VerifiedToken verified = verifier.verify(forged, now);
+
+        // assert
+        assertThat(verified).isNull();
+    }
+
+    @Test
+    public void malformedTokens_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String token = createToken(SignatureAlgorithm.HS256, signingKey, claims(now, "A"));
+        String[] parts = token.split("\\.");
+
+        // act & assert
+        assertThat(verifier.verify("", now)).isNull();
+        assertThat(verifier.verify("...", now)).isNull();
+        assertThat(verifier.verify(token + ".", now)).isNull();
+        assertThat(verifier.verify(parts[0] + "." + parts[1] + ".", now)).isNull();
+        assertThat(verifier.verify(parts[0] + "." + parts[1] + "." + parts[2] + "A", now)).isNull();
+        assertThat(verifier.verify(parts[0] + "." + parts[1] + ".+" + parts[2].substring(1), now)).isNull();
+        assertThat(verifier.verify("é" + token, now)).isNull();
+    }
+
+    @Test
+    public void malformedSignedPayloads_failure() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String header = base64Url("{\"alg\":\"HS256\"}");
+        String[] payloads = {
+                "",
+                "[]",
+                "{\"scopes\":[\"A\"],\"iat\":1,\"exp\":99999999999",
+                "{,\"scopes\":[\"A\"],\"iat\":1,\"exp\":99999999999}",
+                "{\"scopes\":[\"A\",],\"iat\":1,\"exp\":99999999999}",
+                "{\"scopes\":\"A\",\"iat\":1,\"exp\":99999999999}",
+                "{\"scopes\":[1],\"iat\":1,\"exp\":99999999999}",
+                "{\"scopes\":[\"A\"],\"iat\":\"1\",\"exp\":99999999999}",
+                "{\"scopes\":[\"A\"],\"iat\":1,\"exp\":99999999999} trailing",
+                // as milliseconds these would overflow (the nbf into the past)
+                "{\"scopes\":[\"A\"],\"iat\":1,\"exp\":9999999999999999}",
+                "{\"scopes\":[\"A\"],\"iat\":1,\"exp\":99999999999,\"nbf\":9300000000000000}",
+        };
+
+        for (String payload : payloads) {
+            String token = sign(header + "." + base64Url(payload));
+
+            // act
+            VerifiedToken verified = verifier.verify(token, now);
+
+            // assert
+            assertThat(verified).as(payload).isNull();
+        }
+    }
+
+    @Test
+    public void handWrittenPayload_success() {
+        // arrange
+        long now = System.currentTimeMillis();
+        String header = base64Url("{ \"typ\" : \"JWT\", \"alg\" : \"HS256\" }");
+        String payload = base64Url("{\n \"iat\" : 1.5, \"exp\" : 99999999999,"
+                + " \"scopes\" : [ \"\\u0041\", \"A\" ], \"other\" : { \"big\" : 1e400 } \n}");
+        String token = sign(header + "." + payload);
+
+        // act
+        VerifiedToken verified = verifier.verify(token, now);
+
+        // assert
+        assertThat(verified).isNotNull();
+        assertThat(verified.getScopes()).isEqualTo(Collections.singletonList("A"));
+        assertThat(verified.getIssuedAt()).isEqualTo(1000);
+    }
+
+    @Test
+    public void sharedAcrossThreads_success() throws InterruptedException {
+        // arrange
+        long now = System.currentTimeMillis();
+        String valid = createToken(SignatureAlgorithm.HS256, signingKey, claims(now, "A"));
+        String invalid = createToken(SignatureAlgorithm.HS256, "not_the_key", claims(now, "A"));
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        // act
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (verifier.verify(valid, now) == null || verifier.verify(invalid, now) != null) {
+                        failures.add(new AssertionError("unexpected verification result"));
+                        return;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // assert
+        assertThat(failures.isEmpty()).isTrue();
+    }
+
+    private Map<String, Object> claims(long now, String... scopes) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("scopes", Arrays.asList(scopes));
+        claims.put("iat", now / 1000 - 60);
+        claims.put("exp", now / 1000 + 60);
+        return claims;
+    }
+
+    private String createToken(SignatureAlgorithm algorithm, String key, Map<String, Object> claims) {
+        JwtBuilder builder = Jwts.builder().setClaims(claims);
+        return builder.signWith(algorithm, key.getBytes()).compact();
+    }
+
+    /**
+     * Sign an arbitrary (possibly malformed) header and payload.
+     */
+    private String sign(String signingInput) {
+        try {
+            javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
+            mac.init(new javax.crypto.spec.SecretKeySpec(signingKey.getBytes(), "HmacSHA256"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String base64Url(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package com.showbie.common.http.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ScopeRegistryTest {
+    private final ScopeRegistry registry = new ScopeRegistry(Arrays.asList("One", "Two", "Three"));
+
+    @Test
+    public void maskOf_supportedScopes() {
+        assertThat(registry.maskOf("One")).isEqualTo(0b001L);
+        assertThat(registry.maskOf("Two")).isEqualTo(0b010L);
+        assertThat(registry.maskOf("Three")).isEqualTo(0b100L);
+    }
+
+    @Test
+    public void maskOf_unsupportedScope_zero() {
+        assertThat(registry.maskOf("Four")).isEqualTo(0L);
+    }
+
+    @Test
+    public void namesOf_mask() {
+        long mask = registry.maskOf("Three") | registry.maskOf("One");
+
+        assertThat(registry.namesOf(mask)).isEqualTo(Arrays.asList("One", "Three"));
+        assertThat(registry.nameSetOf(mask)).isEqualTo(new HashSet<>(Arrays.asList("One", "Three")));
+        assertThat(registry.authoritiesOf(mask).size()).isEqualTo(2);
+        assertThat(registry.authoritiesOf(mask).get(1).getAuthority()).isEqualTo("Three");
+        assertThat(registry.namesOf(0)).isEqualTo(Collections.emptyList());
+    }
+
+    @Test
+    public void namesOf_sharedPerMask() {
+        long mask = registry.maskOf("Two");
+
+        assertThat(registry.namesOf(mask) == registry.namesOf(mask)).isTrue();
+        assertThat(registry.authoritiesOf(mask) == registry.authoritiesOf(mask)).isTrue();
+    }
+
+    @Test
+    public void duplicateScopes_ignored() {
+        ScopeRegistry duplicates = new ScopeRegistry(Arrays.asList("One", "Two", "One"));
+
+        assertThat(duplicates.getSupportedScopes()).isEqualTo(Arrays.asList("One", "Two"));
+    }
+
+    @Test
+    public void tooManyScopes_failure() {
+        List<String> scopes = new ArrayList<>();
+        for (int i = 0; i <= Long.SIZE; i++) {
+            scopes.add("Scope" + i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new ScopeRegistry(scopes));
+    }
+}
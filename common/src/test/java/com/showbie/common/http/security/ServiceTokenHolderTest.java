@@ -0,0 +1,57 @@
+package com.showbie.common.http.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ServiceTokenHolderTest {
+    private final String signingKey = "ABC";
+    private final List<String> supportedScopes = Arrays.asList("One", "Two");
+
+    @Test
+    public void getToken_reusesValidToken() {
+        // arrange
+        try (ServiceTokenHolder holder = new ServiceTokenHolder(signingKey, 30000, 10000, "One")) {
+
+            // act
+            String first = holder.getToken();
+            String second = holder.getToken();
+
+            // assert
+            assertThat(second).isSameAs(first);
+            TokenParser parser = new TokenParser(signingKey, supportedScopes, first);
+            assertThat(parser.isValid()).isTrue();
+            assertThat(parser.getScopes()).isEqualTo(Arrays.asList("One"));
+        }
+    }
+
+    @Test
+    public void getToken_refreshedBeforeExpiry() throws InterruptedException {
+        // arrange
+        try (ServiceTokenHolder holder = new ServiceTokenHolder(signingKey, 3000, 2500, "One")) {
+            String first = holder.getToken();
+
+            // act -- the first refresh is due within half a second
+            String token = first;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (token.equals(first) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                token = holder.getToken();
+            }
+
+            // assert
+            assertThat(token).isNotEqualTo(first);
+            assertThat(new TokenParser(signingKey, supportedScopes, token).isValid()).isTrue();
+        }
+    }
+
+    @Test
+    public void invalidRefreshMargin_failure() {
+        assertThrows(IllegalArgumentException.class, () -> new ServiceTokenHolder(signingKey, 30000, 30000, "One"));
+        assertThrows(IllegalArgumentException.class, () -> new ServiceTokenHolder(signingKey, 30000, 0, "One"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.showbie.common.http.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class VerifiedTokenCacheTest {
+    private final long scopes = 0b11;
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    public void cachedToken_hit() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token", scopes, now + 60000, now);
+
+        // act
+        long result = cache.get("token", now);
+
+        // assert
+        assertThat(result).isEqualTo(scopes);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void unknownToken_miss() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token", scopes, now + 60000, now);
+
+        // act
+        long result = cache.get("other", now);
+
+        // assert
+        assertThat(result).isEqualTo(0);
+        assertThat(cache.getHitCount()).isEqualTo(0);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredToken_evicted() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token", scopes, now + 60000, now);
+
+        // act
+        long result = cache.get("token", now + 60000); // exactly at expiry
+
+        // assert
+        assertThat(result).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void alreadyExpiredToken_notCached() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        // act
+        cache.put("token", scopes, now - 1, now);
+
+        // assert
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void full_evictsExpiredTokensFirst() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(3);
+        cache.put("expiring", scopes, now + 1000, now);
+        cache.put("live1", scopes, now + 60000, now);
+        cache.put("live2", scopes, now + 60000, now);
+
+        // act
+        cache.put("live3", scopes, now + 60000, now + 1000);
+
+        // assert
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("live1", now + 1000)).isEqualTo(scopes);
+        assertThat(cache.get("live2", now + 1000)).isEqualTo(scopes);
+        assertThat(cache.get("live3", now + 1000)).isEqualTo(scopes);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void full_neverExceedsMaximumSize() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+        // act
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token" + i, scopes, now + 60000, now);
+        }
+
+        // assert
+        assertThat(cache.size() <= 100).isTrue();
+        assertThat(cache.get("token999", now)).isEqualTo(scopes);
+        assertThat(cache.getEvictionCount()).isEqualTo(1000 - cache.size());
+    }
+
+    @Test
+    public void zeroSize_disabled() {
+        // arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+
+        // act
+        cache.put("token", 0b1, now + 60000, now);
+
+        // assert
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.get("token", now)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.showbie.common.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class LogRateLimiterTest {
+
+    @Test
+    public void acquire_limitedPerInterval() {
+        // arrange
+        LogRateLimiter limiter = new LogRateLimiter(2, 1000);
+
+        // act and assert
+        assertThat(limiter.acquire(10_000)).isEqualTo(0L);
+        assertThat(limiter.acquire(10_100)).isEqualTo(0L);
+        assertThat(limiter.acquire(10_200)).isEqualTo(-1L);
+        assertThat(limiter.acquire(10_300)).isEqualTo(-1L);
+
+        // the next interval reports what was suppressed
+        assertThat(limiter.acquire(11_000)).isEqualTo(2L);
+        assertThat(limiter.acquire(11_001)).isEqualTo(0L);
+    }
+
+    @Test
+    public void acquire_zeroLimit_suppressesAll() {
+        // arrange
+        LogRateLimiter limiter = new LogRateLimiter(0, 1000);
+
+        // act and assert
+        assertThat(limiter.acquire(10_000)).isEqualTo(-1L);
+        assertThat(limiter.acquire(20_000)).isEqualTo(-1L);
+    }
+}
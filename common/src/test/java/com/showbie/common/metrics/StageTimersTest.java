@@ -0,0 +1,69 @@
+package com.showbie.common.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class StageTimersTest {
+
+    @Test
+    public void record_beforeBinding_isIgnored() {
+        // arrange
+        StageTimers stageTimers = new StageTimers();
+        StageTimer stageTimer = stageTimers.create("stage.a", "Stage A");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // act
+        stageTimer.record(System.nanoTime());
+        stageTimers.bindTo(registry);
+        stageTimer.record(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+
+        // assert
+        Timer timer = registry.get("request.stage").tag("stage", "stage.a").timer();
+        assertThat(timer.count()).isEqualTo(1L);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5.0);
+    }
+
+    @Test
+    public void create_afterBinding_isRegistered() {
+        // arrange
+        StageTimers stageTimers = new StageTimers();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        stageTimers.bindTo(registry);
+
+        // act
+        StageTimer stageTimer = stageTimers.create("stage.b", "Stage B");
+        stageTimer.record(System.nanoTime());
+
+        // assert
+        assertThat(registry.get("request.stage").tag("stage", "stage.b").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    public void record_allocatesNothing() {
+        // arrange
+        StageTimers stageTimers = new StageTimers();
+        StageTimer stageTimer = stageTimers.create("stage.c", "Stage C");
+        stageTimers.bindTo(new SimpleMeterRegistry());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        // act -- the first rounds include JIT compilation and filling the histogram buckets
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 100_000; i++) {
+                stageTimer.record(System.nanoTime() - i);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        // assert -- allow for the measurement itself, far less than a byte per record
+        assertThat(allocated).isLessThan(1024L);
+    }
+}
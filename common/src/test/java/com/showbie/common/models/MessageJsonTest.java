@@ -0,0 +1,68 @@
+package com.showbie.common.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.showbie.common.services.MessageService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class MessageJsonTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void encode_sameAsJackson() throws Exception {
+        // arrange
+        Message message = new Message("Don’t \"quote\" \\ me – \u0001 ok/é", "private");
+
+        // act
+        byte[] json = MessageJson.encode(message);
+
+        // assert
+        assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(message));
+    }
+
+    @Test
+    public void encode_nullFields_sameAsJackson() throws Exception {
+        // arrange
+        Message message = new Message(null, null);
+
+        // act
+        byte[] json = MessageJson.encode(message);
+
+        // assert
+        assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(message));
+    }
+
+    @Test
+    public void array_sameAsJackson() throws Exception {
+        // arrange
+        Message first = new Message("one", "public");
+        Message second = new Message("two", "private");
+
+        // act
+        byte[] json = MessageJson.array(Arrays.asList(MessageJson.encode(first), MessageJson.encode(second)));
+        byte[] empty = MessageJson.array(Collections.emptyList());
+
+        // assert
+        assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(Arrays.asList(first, second)));
+        assertThat(new String(empty, StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    public void phraseJson_sameAsJackson() throws Exception {
+        // arrange
+        MessageService messageService = new MessageService();
+
+        // act and assert -- round trip a sample of the corpus through Jackson
+        for (int i = 0; i < 1000; i++) {
+            byte[] json = messageService.getPhraseJson("public");
+            Message message = objectMapper.readValue(json, Message.class);
+            assertThat(message.getOrigin()).isEqualTo("public");
+            assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(message));
+        }
+    }
+}
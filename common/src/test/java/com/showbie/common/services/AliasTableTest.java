@@ -0,0 +1,89 @@
+package com.showbie.common.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AliasTableTest {
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void sample_matchesWeights() {
+        // arrange
+        double[] weights = {1, 2, 3, 4, 0.5, 9.5};
+        AliasTable table = AliasTable.build(weights, weights.length);
+
+        // act
+        long[] counts = sample(table, weights.length);
+
+        // assert -- chi-squared goodness of fit, 5 degrees of freedom; 20.52 is the 0.1% critical value
+        assertThat(chiSquared(counts, weights)).isLessThan(20.52);
+    }
+
+    @Test
+    public void sample_skewedWeights_matchesWeights() {
+        // arrange -- one heavy phrase among many light ones exercises long alias chains
+        double[] weights = new double[100];
+        Arrays.fill(weights, 1);
+        weights[42] = 500;
+        AliasTable table = AliasTable.build(weights, weights.length);
+
+        // act
+        long[] counts = sample(table, weights.length);
+
+        // assert -- 99 degrees of freedom; 148.23 is the 0.1% critical value
+        assertThat(chiSquared(counts, weights)).isLessThan(148.23);
+    }
+
+    @Test
+    public void sample_zeroWeight_neverSelected() {
+        // arrange
+        double[] weights = {1, 0, 1};
+        AliasTable table = AliasTable.build(weights, weights.length);
+
+        // act
+        long[] counts = sample(table, weights.length);
+
+        // assert
+        assertThat(counts[1]).isEqualTo(0L);
+    }
+
+    @Test
+    public void build_invalidWeights_failure() {
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.build(new double[]{0, 0}, 2));
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.build(new double[]{1, -1}, 2));
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.build(new double[]{1, Double.NaN}, 2));
+    }
+
+    private static long[] sample(AliasTable table, int size) {
+        Random random = new Random(42);
+        long[] counts = new long[size];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[table.sample(random)]++;
+        }
+        return counts;
+    }
+
+    static double chiSquared(long[] counts, double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double chiSquared = 0;
+        long samples = 0;
+        for (long count : counts) {
+            samples += count;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            double expected = samples * weights[i] / total;
+            if (expected > 0) {
+                chiSquared += (counts[i] - expected) * (counts[i] - expected) / expected;
+            }
+        }
+        return chiSquared;
+    }
+}
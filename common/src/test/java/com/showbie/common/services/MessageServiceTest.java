@@ -0,0 +1,132 @@
+package com.showbie.common.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.showbie.common.models.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class MessageServiceTest {
+    private final MessageService messageService = new MessageService();
+
+    @Test
+    public void getPhrase_randomPhrases() {
+        // act
+        Set<String> phrases = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            phrases.add(messageService.getPhrase());
+        }
+
+        // assert
+        assertThat(phrases.contains(null)).isFalse();
+        assertThat(phrases.size() > 1).isTrue();
+    }
+
+    @Test
+    public void builtInCorpus_loaded() {
+        assertThat(messageService.getPhraseCount()).isEqualTo(83);
+    }
+
+    @Test
+    public void corpusFile_mapped(@TempDir Path directory) throws Exception {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(Arrays.asList("Only \"phrase\"").iterator(), file);
+
+        // act
+        MessageService service = new MessageService(new FileSystemResource(file));
+
+        // assert
+        assertThat(service.getPhrase()).isEqualTo("Only \"phrase\"");
+        Message message = new ObjectMapper().readValue(service.getPhraseJson("private"), Message.class);
+        assertThat(message.getText()).isEqualTo("Only \"phrase\"");
+        assertThat(message.getOrigin()).isEqualTo("private");
+    }
+
+    @Test
+    public void reload_publishesRewrittenCorpus(@TempDir Path directory) throws Exception {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(Arrays.asList("Old phrase").iterator(), file);
+        MessageService service = new MessageService(new FileSystemResource(file));
+
+        // act
+        PhraseCorpus.write(Arrays.asList("New phrase", "Another new phrase").iterator(), file);
+        boolean reloaded = service.reload();
+
+        // assert
+        assertThat(reloaded).isTrue();
+        assertThat(service.getPhraseCount()).isEqualTo(2);
+        assertThat(service.getPhrase().startsWith("Old")).isFalse();
+    }
+
+    @Test
+    public void reload_invalidCorpus_keepsCurrentCorpus(@TempDir Path directory) throws Exception {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(Arrays.asList("Kept phrase").iterator(), file);
+        MessageService service = new MessageService(new FileSystemResource(file));
+        Path broken = directory.resolve("broken.tmp");
+        Files.write(broken, new byte[]{1, 2, 3});
+        Files.move(broken, file, StandardCopyOption.REPLACE_EXISTING);
+
+        // act
+        boolean reloaded = service.reload();
+
+        // assert
+        assertThat(reloaded).isFalse();
+        assertThat(service.getPhrase()).isEqualTo("Kept phrase");
+    }
+
+    @Test
+    public void reload_concurrentRequests_seeCompleteCorpus(@TempDir Path directory) throws Exception {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(Arrays.asList("Version 0").iterator(), file);
+        MessageService service = new MessageService(new FileSystemResource(file));
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        Future<?>[] results = new Future<?>[4];
+        for (int r = 0; r < results.length; r++) {
+            results[r] = readers.submit(() -> {
+                while (reloading.get()) {
+                    Message message = new ObjectMapper().readValue(service.getPhraseJson("public"), Message.class);
+                    if (!message.getText().startsWith("Version ")) {
+                        throw new AssertionError("Unexpected phrase: " + message.getText());
+                    }
+                }
+                return null;
+            });
+        }
+
+        // act
+        for (int version = 1; version <= 50; version++) {
+            String[] phrases = new String[version + 1];
+            Arrays.fill(phrases, "Version " + version);
+            PhraseCorpus.write(Arrays.asList(phrases).iterator(), file);
+            assertThat(service.reload()).isTrue();
+        }
+        reloading.set(false);
+
+        // assert
+        for (Future<?> result : results) {
+            result.get();
+        }
+        readers.shutdown();
+        assertThat(service.getPhraseCount()).isEqualTo(51);
+        assertThat(service.getPhrase()).isEqualTo("Version 50");
+    }
+}
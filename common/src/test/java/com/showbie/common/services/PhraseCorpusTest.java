@@ -0,0 +1,163 @@
+package com.showbie.common.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PhraseCorpusTest {
+    private final List<String> phrases = Arrays.asList("One", "Don’t \"quote\" me", "Back\\slash\ttab", "é – ü");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void read_textCorpus() throws IOException {
+        // arrange
+        String text = String.join("\n", phrases) + "\n\n";
+
+        // act
+        PhraseCorpus corpus = PhraseCorpus.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+
+        // assert -- blank lines are ignored
+        assertThat(corpus.size()).isEqualTo(4);
+        for (int i = 0; i < phrases.size(); i++) {
+            assertThat(corpus.phrase(i)).isEqualTo(phrases.get(i));
+        }
+    }
+
+    @Test
+    public void writeAndMap_corpusFile() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(phrases.iterator(), file);
+
+        // act
+        PhraseCorpus corpus = PhraseCorpus.map(file);
+
+        // assert
+        assertThat(corpus.size()).isEqualTo(4);
+        for (int i = 0; i < phrases.size(); i++) {
+            assertThat(corpus.phrase(i)).isEqualTo(phrases.get(i));
+        }
+    }
+
+    @Test
+    public void copy_escapedBytes() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(phrases.iterator(), file);
+        PhraseCorpus corpus = PhraseCorpus.map(file);
+
+        // act
+        byte[] escaped = new byte[corpus.length(1) + 2];
+        corpus.copy(1, escaped, 1);
+
+        // assert
+        assertThat(new String(escaped, 1, escaped.length - 2, StandardCharsets.UTF_8))
+                .isEqualTo("Don’t \\\"quote\\\" me");
+    }
+
+    @Test
+    public void map_notACorpusFile_failure() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        Files.write(file, "One\nTwo\n".getBytes(StandardCharsets.UTF_8));
+
+        // act and assert
+        assertThrows(IllegalArgumentException.class, () -> PhraseCorpus.map(file));
+    }
+
+    @Test
+    public void map_corruptIndex_failure() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(phrases.iterator(), file);
+        byte[] valid = Files.readAllBytes(file);
+
+        for (int offset : new int[]{-1, 1000, 1}) {
+            // the third of the five offsets (after the 16 byte header): negative, past the
+            // phrase bytes, or before the second
+            byte[] corrupt = valid.clone();
+            ByteBuffer.wrap(corrupt).putInt(16 + 4 * 2, offset);
+            Files.write(file, corrupt);
+
+            // act and assert -- rejected on loading rather than when the phrase is served
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PhraseCorpus.map(file));
+            assertThat(e.getMessage()).startsWith("Corrupt phrase corpus index");
+        }
+    }
+
+    @Test
+    public void emptyCorpus_failure() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PhraseCorpus.read(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    public void read_weightedTextCorpus() throws IOException {
+        // arrange
+        String text = "Rare\t1\nCommon\t3\nDefault weight\nBack\\slash\ttab\n";
+
+        // act
+        PhraseCorpus corpus = PhraseCorpus.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+
+        // assert -- weights are stripped from phrases; a tab not followed by a number is part of the phrase
+        assertThat(corpus.isWeighted()).isTrue();
+        assertThat(corpus.phrase(0)).isEqualTo("Rare");
+        assertThat(corpus.phrase(1)).isEqualTo("Common");
+        assertThat(corpus.phrase(3)).isEqualTo("Back\\slash\ttab");
+        assertThat(AliasTableTest.chiSquared(sample(corpus), new double[]{1, 3, 1, 1})).isLessThan(16.27);
+    }
+
+    @Test
+    public void writeAndMap_weightedCorpusFile() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(Arrays.asList("Never\t0", "Once\t1", "Twice\t2", "Often\t7.5").iterator(), file);
+
+        // act
+        PhraseCorpus corpus = PhraseCorpus.map(file);
+
+        // assert -- 2 degrees of freedom (the zero weight phrase is never selected); 13.82 is the 0.1% critical value
+        assertThat(corpus.isWeighted()).isTrue();
+        assertThat(corpus.phrase(3)).isEqualTo("Often");
+        long[] counts = sample(corpus);
+        assertThat(counts[0]).isEqualTo(0L);
+        assertThat(AliasTableTest.chiSquared(counts, new double[]{0, 1, 2, 7.5})).isLessThan(13.82);
+    }
+
+    @Test
+    public void map_unweightedCorpusFile_uniform() throws IOException {
+        // arrange
+        Path file = directory.resolve("phrases.corpus");
+        PhraseCorpus.write(phrases.iterator(), file);
+
+        // act
+        PhraseCorpus corpus = PhraseCorpus.map(file);
+
+        // assert
+        assertThat(corpus.isWeighted()).isFalse();
+        assertThat(AliasTableTest.chiSquared(sample(corpus), new double[]{1, 1, 1, 1})).isLessThan(16.27);
+    }
+
+    private static long[] sample(PhraseCorpus corpus) {
+        Random random = new Random(42);
+        long[] counts = new long[corpus.size()];
+        for (int i = 0; i < 100_000; i++) {
+            counts[corpus.sample(random)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,57 @@
+package com.showbie.common.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class PhrasePermutationTest {
+
+    @Test
+    public void index_eachPassVisitsEveryPhraseOnce() {
+        for (int size : new int[]{1, 2, 3, 5, 16, 17, 83, 1000, 65537}) {
+            long seed = size * 7919L;
+            for (int pass = 0; pass < 3; pass++) {
+                // act
+                BitSet seen = new BitSet(size);
+                for (int offset = 0; offset < size; offset++) {
+                    seen.set(PhrasePermutation.index(seed, (long) pass * size + offset, size));
+                }
+
+                // assert
+                assertThat(seen.cardinality()).isEqualTo(size);
+            }
+        }
+    }
+
+    @Test
+    public void index_neverRepeatsConsecutively() {
+        for (int size : new int[]{2, 3, 4, 7, 83}) {
+            for (long seed = 0; seed < 200; seed++) {
+                // act and assert -- including across pass boundaries
+                int previous = PhrasePermutation.index(seed, 0, size);
+                for (long position = 1; position < 5L * size; position++) {
+                    int index = PhrasePermutation.index(seed, position, size);
+                    assertThat(index).isNotEqualTo(previous);
+                    previous = index;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void index_seedsGiveDifferentOrders() {
+        // act
+        int[] first = new int[83];
+        int[] second = new int[83];
+        for (int i = 0; i < 83; i++) {
+            first[i] = PhrasePermutation.index(1, i, 83);
+            second[i] = PhrasePermutation.index(2, i, 83);
+        }
+
+        // assert
+        assertThat(Arrays.equals(first, second)).isFalse();
+    }
+}
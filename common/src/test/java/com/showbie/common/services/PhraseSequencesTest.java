@@ -0,0 +1,64 @@
+package com.showbie.common.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class PhraseSequencesTest {
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    public void next_walksEveryPhrasePerClient() {
+        // arrange
+        PhraseSequences sequences = new PhraseSequences(10, 60_000);
+
+        // act -- two clients interleaved
+        BitSet first = new BitSet();
+        BitSet second = new BitSet();
+        for (int i = 0; i < 83; i++) {
+            first.set(sequences.next("first", 83, NOW));
+            second.set(sequences.next("second", 83, NOW));
+        }
+
+        // assert
+        assertThat(first.cardinality()).isEqualTo(83);
+        assertThat(second.cardinality()).isEqualTo(83);
+        assertThat(sequences.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void next_idleClientsEvictedFirst() {
+        // arrange
+        PhraseSequences sequences = new PhraseSequences(2, 60_000);
+        sequences.next("idle", 83, NOW);
+        sequences.next("active", 83, NOW + 59_000);
+
+        // act
+        sequences.next("new", 83, NOW + 61_000);
+
+        // assert -- only the idle client was evicted, leaving room for the new one
+        assertThat(sequences.size()).isEqualTo(2);
+        assertThat(sequences.getEvictionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void next_bounded() {
+        // arrange
+        PhraseSequences sequences = new PhraseSequences(100, 60_000);
+
+        // act
+        for (int i = 0; i < 10_000; i++) {
+            sequences.next("client-" + i, 83, NOW);
+        }
+
+        // assert
+        assertThat(sequences.size() <= 100).isTrue();
+    }
+
+    @Test
+    public void disabled() {
+        assertThat(new PhraseSequences(0, 60_000).isEnabled()).isFalse();
+    }
+}
@@ -1,18 +1,29 @@
 package com.showbie.privateservice.controllers;
 
-import com.showbie.common.models.Message;
+import com.showbie.common.http.security.ClientKey;
+import com.showbie.common.models.MessageJson;
 import com.showbie.common.services.MessageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 public class MessageController {
 
     Logger logger = LoggerFactory.getLogger(MessageController.class);
 
+    @Value("${message.batch.max-count:100}")
+    private int maxBatchCount;
+
     private MessageService messageService;
 
     @Autowired
@@ -20,16 +31,42 @@ public class MessageController {
         this.messageService = messageService;
     }
 
+    /**
+     * A random message, written from its precomputed JSON encoding.
+     */
     @GetMapping("/message")
-    public Message message() {
+    public ResponseEntity<byte[]> message(HttpServletRequest request) {
 
         logger.info("Starting message request");
 
-        Message result = new Message(messageService.getPhrase(), "private");
+        byte[] result = messageService.getPhraseJson("private", ClientKey.of(request));
 
         logger.info("Completed message request");
 
-        return result;
+        return MessageJson.response(result);
+    }
+
+    /**
+     * Several messages in one response, so callers pay the per-request overhead
+     * (authentication, connection, JSON framing) once per batch.
+     *
+     * @param count Number of messages wanted; capped at {@code message.batch.max-count}.
+     */
+    @GetMapping("/messages")
+    public ResponseEntity<byte[]> messages(@RequestParam(defaultValue = "1") int count, HttpServletRequest request) {
+
+        logger.info("Starting messages request for {}", count);
+
+        String clientKey = ClientKey.of(request);
+        int size = Math.max(0, Math.min(count, maxBatchCount));
+        List<byte[]> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(messageService.getPhraseJson("private", clientKey));
+        }
+
+        logger.info("Completed messages request");
+
+        return MessageJson.response(MessageJson.array(result));
     }
 }
 
@@ -3,20 +3,23 @@ package com.showbie.privateservice;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.showbie.common.http.security.ClientKey;
 import com.showbie.common.http.security.TokenGenerator;
 import com.showbie.common.models.Message;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -26,7 +29,8 @@ import static org.junit.jupiter.api.Assertions.fail;
  * Functional tests used to validate private-service behavior.
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
-        "auth.token.key=ABC123" // required property
+        "auth.token.key=ABC123", // required property
+        "message.no-repeat.max-clients=1000",
 })
 class PrivateServiceFunctionalTests {
 
@@ -68,6 +72,82 @@ class PrivateServiceFunctionalTests {
 
     }
 
+    @Test
+    void should_return_messages_in_jackson_wire_format() throws JsonProcessingException {
+        String token = TokenGenerator.createTokenHS256(
+                authTokenSigningKey,
+                5000,
+                "PRIVATE_SERVICE"
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(token);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<String> single = restTemplate.exchange(
+                String.format("http://%s:%d/message", host, port), HttpMethod.GET, entity, String.class);
+        ResponseEntity<String> batch = restTemplate.exchange(
+                String.format("http://%s:%d/messages?count=3", host, port), HttpMethod.GET, entity, String.class);
+
+        // the precomputed bytes must match what Jackson writes for the same messages
+        Message message = objectMapper.readValue(single.getBody(), Message.class);
+        assertThat(single.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(single.getBody()).isEqualTo(objectMapper.writeValueAsString(message));
+        Message[] messages = objectMapper.readValue(batch.getBody(), Message[].class);
+        assertThat(batch.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(batch.getBody()).isEqualTo(objectMapper.writeValueAsString(messages));
+    }
+
+    @Test
+    void should_return_messages_batch_happy_path() {
+
+        Message[] messages = makeBatchRequest(5);
+
+        assertThat(messages).isNotNull();
+        assertThat(messages.length).isEqualTo(5);
+        for (Message message : messages) {
+            assertThat(message.getText()).isNotNull();
+            assertThat(message.getOrigin()).isEqualTo("private");
+        }
+    }
+
+    @Test
+    void should_cap_messages_batch_size() {
+
+        Message[] messages = makeBatchRequest(1000);
+
+        assertThat(messages).isNotNull();
+        assertThat(messages.length).isEqualTo(100); // message.batch.max-count
+    }
+
+    @Test
+    void should_not_repeat_messages_for_a_client() {
+
+        String clientKey = UUID.randomUUID().toString();
+        Message[] messages = makeBatchRequest(83, clientKey); // size of the built-in corpus
+        Message next = makeBatchRequest(1, clientKey)[0];
+
+        Set<String> texts = new HashSet<>();
+        for (Message message : messages) {
+            texts.add(message.getText());
+        }
+        assertThat(texts.size()).isEqualTo(83);
+        assertThat(next.getText()).isNotEqualTo(messages[82].getText());
+    }
+
+    @Test
+    void should_return_401_if_messages_batch_not_authenticated() throws JsonProcessingException {
+        HttpClientErrorException exception = null;
+        try {
+            makeRequestInternal("messages?count=2", (String) null); // no token supplied, thus no Authorization header
+            fail("should not be reached");
+        } catch (HttpClientErrorException ex) {
+            exception = ex;
+        }
+
+        assertClientError(exception, 401, "Unauthorized", "Authentication is required");
+    }
+
     @Test
     void should_return_not_found_if_invalid_resource() throws JsonProcessingException {
 
@@ -200,6 +280,31 @@ class PrivateServiceFunctionalTests {
         return makeRequestInternal(resource, headers);
     }
 
+    private Message[] makeBatchRequest(int count) {
+        return makeBatchRequest(count, null);
+    }
+
+    private Message[] makeBatchRequest(int count, String clientKey) {
+        String token = TokenGenerator.createTokenHS256(
+                authTokenSigningKey,
+                5000,
+                "PRIVATE_SERVICE"
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.set("X-CorrelationId", UUID.randomUUID().toString());
+        headers.setBearerAuth(token);
+        if (clientKey != null) {
+            headers.set(ClientKey.CLIENT_KEY_HEADER, clientKey);
+        }
+
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        String url = String.format("http://%s:%d/messages?count=%d", host, port, count);
+        ResponseEntity<Message[]> response = restTemplate.exchange(url, HttpMethod.GET, entity,
+                Message[].class);
+        return response.getBody();
+    }
+
     private Message makeRequestInternal(String resource, String token) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
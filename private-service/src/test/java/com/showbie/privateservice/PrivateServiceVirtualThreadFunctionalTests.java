@@ -0,0 +1,15 @@
+package com.showbie.privateservice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the private-service functional tests with requests handled on virtual
+ * threads ({@code spring.threads.virtual.enabled=true}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.token.key=ABC123", // required property
+        "message.no-repeat.max-clients=1000",
+        "spring.threads.virtual.enabled=true",
+})
+class PrivateServiceVirtualThreadFunctionalTests extends PrivateServiceFunctionalTests {
+}
@@ -0,0 +1,107 @@
+package com.showbie.publicservice.config;
+
+import com.showbie.common.http.correlation.MdcTaskDecorator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Executors used to call private-service off the request thread (see
+ * {@link com.showbie.publicservice.controllers.AsyncMessageController}), to send
+ * hedged private-service calls (see {@link com.showbie.publicservice.services.PrivateServiceHedger})
+ * and to write message streams (see {@link com.showbie.publicservice.controllers.MessageStreamController}).
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${private.service.executor.pool-size:50}")
+    private int poolSize;
+
+    @Value("${private.service.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${private.service.hedge.executor.pool-size:10}")
+    private int hedgePoolSize;
+
+    @Value("${message.stream.max-streams:100}")
+    private int maxStreams;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Bounded pool for blocking private-service calls, or a virtual thread per
+     * call in virtual thread mode (the pooled http client's acquire timeout then
+     * bounds how many calls wait on private-service). Tasks inherit the
+     * submitting request's MDC so correlation ids are logged and forwarded.
+     */
+    @Bean
+    public TaskExecutor privateServiceExecutor() {
+        if (virtualThreads) {
+            TaskExecutorAdapter executor = new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("private-service-", 0).factory()));
+            executor.setTaskDecorator(new MdcTaskDecorator());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("private-service-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Hedged private-service calls, kept apart from {@link #privateServiceExecutor()}:
+     * in async mode its threads are the primaries blocked waiting on the hedges,
+     * which must not queue behind them. No queue, so a hedge starts at once or is
+     * rejected (and the primary answers alone); unbounded in virtual thread mode.
+     * The hedger sets the correlation id itself.
+     */
+    @Bean
+    public TaskExecutor privateServiceHedgeExecutor() {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("private-service-hedge-", 0).factory()));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(hedgePoolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("private-service-hedge-");
+        return executor;
+    }
+
+    /**
+     * A thread per open message stream, which spends most of its time waiting
+     * (for the next message to be due, or for the client to read). Bounded to
+     * {@code message.stream.max-streams} with no queue, so streams beyond it are
+     * rejected rather than left waiting; unbounded in virtual thread mode.
+     */
+    @Bean
+    public TaskExecutor messageStreamExecutor() {
+        if (virtualThreads) {
+            TaskExecutorAdapter executor = new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("message-stream-", 0).factory()));
+            executor.setTaskDecorator(new MdcTaskDecorator());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(maxStreams);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("message-stream-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        return executor;
+    }
+}
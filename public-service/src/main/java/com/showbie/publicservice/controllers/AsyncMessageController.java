@@ -0,0 +1,134 @@
+package com.showbie.publicservice.controllers;
+
+import com.showbie.common.http.security.AuthenticatedTokenScopes;
+import com.showbie.common.http.security.ClientKey;
+import com.showbie.common.http.security.ScopeRegistry;
+import com.showbie.common.metrics.StageTimer;
+import com.showbie.common.metrics.StageTimers;
+import com.showbie.common.models.Message;
+import com.showbie.common.models.MessageJson;
+import com.showbie.common.services.MessageService;
+import com.showbie.publicservice.services.PrivateServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves messages asynchronously: the private-service call is started first and
+ * runs on the private-service executor while the public phrase is generated, and
+ * the servlet thread is released instead of waiting on private-service I/O.
+ * Enabled with {@code message.async.enabled=true}; see {@link MessageController}.
+ */
+@RestController
+@ConditionalOnProperty(name = "message.async.enabled", havingValue = "true")
+public class AsyncMessageController {
+
+    Logger logger = LoggerFactory.getLogger(AsyncMessageController.class);
+
+    private AuthenticatedTokenScopes authenticatedTokenScopes;
+    private MessageService messageService;
+    private PrivateServiceClient privateServiceClient;
+    private ScopeRegistry scopeRegistry;
+    private StageTimers stageTimers;
+
+    private StageTimer publicMessageTimer;
+    private StageTimer privateMessageTimer;
+    private StageTimer jsonTimer;
+
+    // DOC - scope masks are resolved once, each request only tests its mask
+    private long publicServiceScope;
+    private long privateServiceScope;
+
+    @Autowired
+    public void setAuthenticatedTokenScopes(AuthenticatedTokenScopes authenticatedTokenScopes) {
+        this.authenticatedTokenScopes = authenticatedTokenScopes;
+    }
+
+    @Autowired
+    public void setMessageService(MessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    @Autowired
+    public void setPrivateServiceClient(PrivateServiceClient privateServiceClient) {
+        this.privateServiceClient = privateServiceClient;
+    }
+
+    @Autowired
+    public void setScopeRegistry(ScopeRegistry scopeRegistry) {
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Autowired
+    public void setStageTimers(StageTimers stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
+    @PostConstruct
+    public void resolveScopes() {
+        publicServiceScope = scopeRegistry.maskOf("PUBLIC_SERVICE");
+        privateServiceScope = scopeRegistry.maskOf("PRIVATE_SERVICE");
+    }
+
+    @PostConstruct
+    public void createStageTimers() {
+        publicMessageTimer = stageTimers.create("message.public", "Selecting the public message");
+        privateMessageTimer = stageTimers.create("message.private", "Getting the private message from private-service");
+        jsonTimer = stageTimers.create("message.json", "Writing the JSON response body");
+    }
+
+    @GetMapping("/message")
+    public CompletableFuture<ResponseEntity<byte[]>> message(HttpServletRequest request) {
+
+        logger.info("Starting message request");
+
+        // DOC - scopes are read here as the security context belongs to the request thread
+        long scopes = authenticatedTokenScopes.getScopeMask();
+
+        // start the (slow) private-service call first so it overlaps the local work
+        CompletableFuture<Message> privateMessage = null;
+        long privateStart = System.nanoTime();
+        if ((scopes & privateServiceScope) != 0) {
+            logger.info("Including private message");
+            privateMessage = privateServiceClient.getMessageAsync();
+        }
+
+        List<byte[]> result = new ArrayList<>(2);
+        if ((scopes & publicServiceScope) != 0) {
+            logger.info("Including public message");
+            long start = System.nanoTime();
+            result.add(messageService.getPhraseJson("public", ClientKey.of(request)));
+            publicMessageTimer.record(start);
+        }
+
+        if (privateMessage == null) {
+            logger.info("Completed message request");
+            return CompletableFuture.completedFuture(response(result));
+        }
+
+        // completes on the private-service executor, which carries the request's MDC
+        return privateMessage.thenApply(message -> {
+            result.add(MessageJson.encode(message));
+            privateMessageTimer.record(privateStart);
+            logger.info("Completed message request");
+            return response(result);
+        });
+    }
+
+    private ResponseEntity<byte[]> response(List<byte[]> result) {
+        long start = System.nanoTime();
+        ResponseEntity<byte[]> response = MessageJson.response(MessageJson.array(result));
+        jsonTimer.record(start);
+        return response;
+    }
+}
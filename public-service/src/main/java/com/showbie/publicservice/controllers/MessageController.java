@@ -1,20 +1,33 @@
 package com.showbie.publicservice.controllers;
 
 import com.showbie.common.http.security.AuthenticatedTokenScopes;
-import com.showbie.common.models.Message;
+import com.showbie.common.http.security.ClientKey;
+import com.showbie.common.http.security.ScopeRegistry;
+import com.showbie.common.metrics.StageTimer;
+import com.showbie.common.metrics.StageTimers;
+import com.showbie.common.models.MessageJson;
 import com.showbie.common.services.MessageService;
 import com.showbie.publicservice.services.PrivateServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * Serves messages, calling private-service on the request thread. See
+ * {@link AsyncMessageController} for the asynchronous alternative
+ * ({@code message.async.enabled=true}).
+ */
 @RestController
+@ConditionalOnProperty(name = "message.async.enabled", havingValue = "false", matchIfMissing = true)
 public class MessageController {
 
     Logger logger = LoggerFactory.getLogger(MessageController.class);
@@ -22,6 +35,16 @@ public class MessageController {
     private AuthenticatedTokenScopes authenticatedTokenScopes;
     private MessageService messageService;
     private PrivateServiceClient privateServiceClient;
+    private ScopeRegistry scopeRegistry;
+    private StageTimers stageTimers;
+
+    private StageTimer publicMessageTimer;
+    private StageTimer privateMessageTimer;
+    private StageTimer jsonTimer;
+
+    // DOC - scope masks are resolved once, each request only tests its mask
+    private long publicServiceScope;
+    private long privateServiceScope;
 
     @Autowired
     public void setAuthenticatedTokenScopes(AuthenticatedTokenScopes authenticatedTokenScopes) {
@@ -38,27 +61,61 @@ public class MessageController {
         this.privateServiceClient = privateServiceClient;
     }
 
+    @Autowired
+    public void setScopeRegistry(ScopeRegistry scopeRegistry) {
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Autowired
+    public void setStageTimers(StageTimers stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
+    @PostConstruct
+    public void resolveScopes() {
+        publicServiceScope = scopeRegistry.maskOf("PUBLIC_SERVICE");
+        privateServiceScope = scopeRegistry.maskOf("PRIVATE_SERVICE");
+    }
+
+    @PostConstruct
+    public void createStageTimers() {
+        publicMessageTimer = stageTimers.create("message.public", "Selecting the public message");
+        privateMessageTimer = stageTimers.create("message.private", "Getting the private message from private-service");
+        jsonTimer = stageTimers.create("message.json", "Writing the JSON response body");
+    }
+
+    /**
+     * The messages allowed by the request's scopes as a JSON list, written from
+     * the public phrase's precomputed JSON encoding.
+     */
     @GetMapping("/message")
-    public List<Message> message() {
+    public ResponseEntity<byte[]> message(HttpServletRequest request) {
 
         logger.info("Starting message request");
-        List<Message> result = new ArrayList<>();
+        List<byte[]> result = new ArrayList<>(2);
 
-        Set<String> scopes = authenticatedTokenScopes.getScopes();
+        long scopes = authenticatedTokenScopes.getScopeMask();
 
-        if (scopes.contains("PUBLIC_SERVICE")) {
+        if ((scopes & publicServiceScope) != 0) {
 	        logger.info("Including public message");
-            result.add(new Message(messageService.getPhrase(), "public"));
+            long start = System.nanoTime();
+            result.add(messageService.getPhraseJson("public", ClientKey.of(request)));
+            publicMessageTimer.record(start);
         }
 
-        if (scopes.contains("PRIVATE_SERVICE")) {
+        if ((scopes & privateServiceScope) != 0) {
 	        logger.info("Including private message");
-            result.add(privateServiceClient.getMessage());
+            long start = System.nanoTime();
+            result.add(MessageJson.encode(privateServiceClient.getMessage()));
+            privateMessageTimer.record(start);
         }
 
         logger.info("Completed message request");
 
-        return result;
+        long start = System.nanoTime();
+        ResponseEntity<byte[]> response = MessageJson.response(MessageJson.array(result));
+        jsonTimer.record(start);
+        return response;
     }
 }
 
@@ -0,0 +1,190 @@
+package com.showbie.publicservice.controllers;
+
+import com.showbie.common.http.security.AuthenticatedTokenScopes;
+import com.showbie.common.http.security.ClientKey;
+import com.showbie.common.http.security.ScopeRegistry;
+import com.showbie.publicservice.services.MessageStreamer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.util.function.Consumer;
+
+/**
+ * Streams messages to clients that would otherwise poll {@code /message}: the
+ * request is authenticated once, then messages are pushed as Server-Sent Events
+ * ({@code Accept: text/event-stream}) or newline delimited JSON
+ * ({@code Accept: application/x-ndjson}) until {@code count} messages have been
+ * sent or the token expires.
+ * <p>
+ * Served in both the synchronous and asynchronous modes of {@code /message}.
+ * See {@link MessageStreamer} for pacing and flow control.
+ */
+@RestController
+public class MessageStreamController {
+    private static final String STREAM_PATH = "/messages/stream";
+    private static final long TIMEOUT_MARGIN_MILLIS = 5000;
+
+    Logger logger = LoggerFactory.getLogger(MessageStreamController.class);
+
+    @Value("${message.stream.max-rate:100}")
+    private double maxRate;
+
+    @Value("${message.stream.max-count:10000}")
+    private int maxCount;
+
+    private AuthenticatedTokenScopes authenticatedTokenScopes;
+    private MessageStreamer messageStreamer;
+    private ScopeRegistry scopeRegistry;
+    private TaskExecutor executor;
+
+    private long publicServiceScope;
+    private long privateServiceScope;
+
+    @Autowired
+    public void setAuthenticatedTokenScopes(AuthenticatedTokenScopes authenticatedTokenScopes) {
+        this.authenticatedTokenScopes = authenticatedTokenScopes;
+    }
+
+    @Autowired
+    public void setMessageStreamer(MessageStreamer messageStreamer) {
+        this.messageStreamer = messageStreamer;
+    }
+
+    @Autowired
+    public void setScopeRegistry(ScopeRegistry scopeRegistry) {
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Autowired
+    public void setExecutor(@Qualifier("messageStreamExecutor") TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    public void resolveScopes() {
+        publicServiceScope = scopeRegistry.maskOf("PUBLIC_SERVICE");
+        privateServiceScope = scopeRegistry.maskOf("PRIVATE_SERVICE");
+    }
+
+    /**
+     * Messages as Server-Sent Events; a final {@code end} event gives the reason
+     * the stream ended ({@code count}, {@code expired}, ...).
+     *
+     * @param rate  Messages per second; capped at {@code message.stream.max-rate}.
+     * @param count Number of messages (positive); capped at {@code message.stream.max-count}.
+     */
+    @GetMapping(path = STREAM_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(defaultValue = "1") double rate,
+                                   @RequestParam(defaultValue = "100") int count,
+                                   HttpServletRequest request) {
+        Stream stream = new Stream(rate, count, request);
+        SseEmitter emitter = new SseEmitter(stream.timeout());
+        long[] id = new long[1];
+        stream.start(emitter, json -> emitter.send(SseEmitter.event()
+                        .id(Long.toString(++id[0]))
+                        .data(json, MediaType.APPLICATION_JSON)),
+                end -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("end").data(end.toString()));
+                    } catch (Exception e) {
+                        // DOC - the client has gone, nothing to tell it
+                    }
+                });
+        return emitter;
+    }
+
+    /**
+     * Messages as newline delimited JSON, one message per line.
+     *
+     * @param rate  Messages per second; capped at {@code message.stream.max-rate}.
+     * @param count Number of messages (positive); capped at {@code message.stream.max-count}.
+     */
+    @GetMapping(path = STREAM_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamLines(@RequestParam(defaultValue = "1") double rate,
+                                                           @RequestParam(defaultValue = "100") int count,
+                                                           HttpServletRequest request) {
+        Stream stream = new Stream(rate, count, request);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(stream.timeout());
+        stream.start(emitter, json -> {
+            // DOC - one write (and flush) per message
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            emitter.send(line, MediaType.APPLICATION_NDJSON);
+        }, end -> {
+        });
+        // DOC - set up front, as the response is committed before the first message is written
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+
+    /**
+     * A stream's parameters, read on the request thread (which owns the security context).
+     */
+    private final class Stream {
+        private final double rate;
+        private final int count;
+        private final String clientKey;
+        private final long scopes;
+        private final long expiresAt;
+
+        private Stream(double rate, int count, HttpServletRequest request) {
+            if (!(rate > 0)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stream rate must be positive");
+            }
+            if (count < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stream count must be positive");
+            }
+            this.rate = Math.min(rate, maxRate);
+            this.count = Math.min(count, maxCount);
+            this.clientKey = ClientKey.of(request);
+            this.scopes = authenticatedTokenScopes.getScopeMask();
+            this.expiresAt = authenticatedTokenScopes.getExpiresAt();
+        }
+
+        /**
+         * @return Emitter timeout: long enough for the whole stream, but not beyond the token's expiry.
+         */
+        private long timeout() {
+            long streamMillis = (long) (1000 * count / rate);
+            long tokenMillis = expiresAt - System.currentTimeMillis();
+            return Math.max(0, Math.min(streamMillis, tokenMillis)) + TIMEOUT_MARGIN_MILLIS;
+        }
+
+        private void start(ResponseBodyEmitter emitter, MessageStreamer.Sink sink, Consumer<MessageStreamer.End> onEnd) {
+            logger.info("Starting message stream of {} at {}/s", count, rate);
+            try {
+                executor.execute(() -> {
+                    MessageStreamer.End end = messageStreamer.stream(sink,
+                            (scopes & publicServiceScope) != 0, (scopes & privateServiceScope) != 0,
+                            clientKey, rate, count, expiresAt);
+                    if (end != MessageStreamer.End.CLOSED) {
+                        onEnd.accept(end);
+                        emitter.complete();
+                    }
+                    logger.info("Completed message stream ({})", end);
+                });
+            } catch (TaskRejectedException e) {
+                logger.warn("Rejecting message stream: too many open streams");
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open message streams");
+            }
+        }
+    }
+}
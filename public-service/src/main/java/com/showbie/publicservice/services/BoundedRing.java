@@ -0,0 +1,97 @@
+package com.showbie.publicservice.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring (Vyukov's bounded MPMC
+ * queue). Each slot carries a sequence number that tells producers and consumers
+ * whether it is free or filled for their turn, so {@link #offer} and {@link #poll}
+ * only contend on a single CAS of their own position.
+ *
+ * @param <E> Element type.
+ */
+final class BoundedRing<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of elements, rounded up to a power of two.
+     */
+    BoundedRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 1);
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false} if the ring is full.
+     */
+    boolean offer(E element) {
+        long position = producerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1); // publishes the element
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false; // slot not yet consumed from the previous lap
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return The oldest element, or {@code null} if the ring is empty.
+     */
+    E poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.set(index, position + mask + 1); // frees the slot for the next lap
+                    return element;
+                }
+                position = consumerPosition.get();
+            } else if (difference < 0) {
+                return null; // slot not yet filled
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return Approximate number of elements (exact when the ring is quiescent).
+     */
+    int size() {
+        long size = producerPosition.get() - consumerPosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,147 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.models.Message;
+import com.showbie.common.models.MessageJson;
+import com.showbie.common.services.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produces a paced stream of messages for a client that authenticated once
+ * (see {@link com.showbie.publicservice.controllers.MessageStreamController}).
+ * <p>
+ * Messages are written one at a time at no more than the requested rate; each
+ * write blocks while the client is not reading, so a slow client slows its own
+ * stream rather than building up a backlog (and a stalled stream does not burst
+ * to catch up). Private messages are fetched from private-service in batches of
+ * {@code message.stream.private-batch-size}, not once per message; an empty
+ * batch is retried at the next interval. The stream
+ * ends after the requested count, when the client's token expires, or when the
+ * client goes away.
+ */
+@Service
+public class MessageStreamer {
+    /**
+     * Why a stream ended.
+     */
+    public enum End {
+        COUNT, EXPIRED, CLOSED, INTERRUPTED, FAILED;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Where streamed messages are written.
+     */
+    public interface Sink {
+        /**
+         * Write a message, blocking while the client is not ready for it.
+         *
+         * @param json UTF-8 JSON encoded {@link Message}.
+         * @throws IOException           If the client went away.
+         * @throws IllegalStateException If the stream has already been completed (e.g. timed out).
+         */
+        void send(byte[] json) throws IOException;
+    }
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Value("${message.stream.private-batch-size:50}")
+    private int privateBatchSize;
+
+    private MessageService messageService;
+    private PrivateServiceClient privateServiceClient;
+
+    @Autowired
+    public void setMessageService(MessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    @Autowired
+    public void setPrivateServiceClient(PrivateServiceClient privateServiceClient) {
+        this.privateServiceClient = privateServiceClient;
+    }
+
+    /**
+     * Stream messages to the sink; alternates between public and private
+     * messages when both are wanted.
+     *
+     * @param sink        Destination.
+     * @param withPublic  Whether to include public messages.
+     * @param withPrivate Whether to include private messages.
+     * @param clientKey   Client identifier (see {@link MessageService#getPhraseJson(String, String)}).
+     * @param rate        Maximum messages per second.
+     * @param count       Number of messages to send.
+     * @param expiresAt   Time (milliseconds) after which no more messages are sent.
+     * @return Why the stream ended.
+     */
+    public End stream(Sink sink, boolean withPublic, boolean withPrivate, String clientKey,
+                      double rate, int count, long expiresAt) {
+        if (!withPublic && !withPrivate) {
+            return End.COUNT;
+        }
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        int privateRemaining = withPublic ? count / 2 : count;
+        Deque<Message> privateMessages = new ArrayDeque<>();
+        long next = System.nanoTime();
+        try {
+            int sent = 0;
+            while (sent < count) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiresAt - System.currentTimeMillis());
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, Math.min(wait, untilExpiry)));
+                }
+                if (System.currentTimeMillis() >= expiresAt) {
+                    logger.info("Ending message stream after {} messages: token expired", sent);
+                    return End.EXPIRED;
+                }
+
+                byte[] json;
+                if (withPublic && (!withPrivate || sent % 2 == 0)) {
+                    json = messageService.getPhraseJson("public", clientKey);
+                } else {
+                    if (privateMessages.isEmpty()) {
+                        privateMessages.addAll(privateServiceClient.getMessages(Math.min(privateBatchSize, privateRemaining)));
+                    }
+                    if (privateMessages.isEmpty()) {
+                        // DOC - no progress: try again at the next interval (until the token expires)
+                        logger.debug("No private messages available, retrying");
+                        next = Math.max(next + intervalNanos, System.nanoTime());
+                        continue;
+                    }
+                    json = MessageJson.encode(privateMessages.remove());
+                    privateRemaining--;
+                }
+                sink.send(json);
+                sent++;
+
+                // DOC - pace from the later of the schedule and now: time lost to a
+                //       slow client is not made up with a burst
+                next = Math.max(next + intervalNanos, System.nanoTime());
+            }
+            return End.COUNT;
+        } catch (IOException | IllegalStateException e) {
+            logger.info("Ending message stream: client closed ({})", e.getMessage());
+            return End.CLOSED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return End.INTERRUPTED;
+        } catch (RuntimeException e) {
+            logger.warn("Ending message stream: {}", e.getMessage());
+            return End.FAILED;
+        }
+    }
+}
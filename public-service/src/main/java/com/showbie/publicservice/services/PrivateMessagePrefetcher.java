@@ -0,0 +1,193 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.models.Message;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static com.showbie.common.http.security.TokenValidationFilter.CORRELATION_MDC_KEY;
+
+/**
+ * Buffer of private messages fetched ahead of the requests that need them.
+ * <p>
+ * Private-service messages do not depend on the request, so they are fetched in
+ * batches by a background thread into a {@link BoundedRing} and handed out from
+ * memory. When the buffer drops to the low watermark a refill tops it up to the
+ * high watermark; an empty buffer returns {@code null} so the caller can fall
+ * back to calling private-service directly.
+ */
+public class PrivateMessagePrefetcher implements MeterBinder, AutoCloseable {
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final IntFunction<List<Message>> fetcher;
+    private final BoundedRing<Message> ring;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int batchSize;
+    private final ExecutorService refresher;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder refillNanos = new LongAdder();
+    private final LongAdder refillFailures = new LongAdder();
+
+    private volatile long retryAt;
+
+    /**
+     * @param fetcher       Fetches a batch of (at most) the given number of messages from private-service.
+     * @param capacity      Buffer capacity.
+     * @param lowWatermark  Buffer depth at or below which a refill is started.
+     * @param highWatermark Buffer depth a refill tops the buffer up to.
+     * @param batchSize     Maximum number of messages fetched per private-service request.
+     */
+    public PrivateMessagePrefetcher(@NonNull IntFunction<List<Message>> fetcher, int capacity,
+                                    int lowWatermark, int highWatermark, int batchSize) {
+        if (lowWatermark < 0 || lowWatermark >= highWatermark || highWatermark > capacity) {
+            throw new IllegalArgumentException("Prefetch watermarks must satisfy 0 <= low < high <= capacity");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Prefetch batch size must be positive");
+        }
+        this.fetcher = fetcher;
+        this.ring = new BoundedRing<>(capacity);
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.batchSize = batchSize;
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "private-message-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start filling the buffer.
+     */
+    public void start() {
+        maybeRefill();
+    }
+
+    /**
+     * Take a prefetched message, starting a refill if the buffer is running low.
+     *
+     * @return A message, or {@code null} if the buffer is empty.
+     */
+    public Message poll() {
+        Message message = ring.poll();
+        if (message == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        maybeRefill();
+        return message;
+    }
+
+    /**
+     * @return Number of buffered messages.
+     */
+    public int getDepth() {
+        return ring.size();
+    }
+
+    /**
+     * Stop refilling the buffer.
+     */
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Buffer metrics (private.service.prefetch.*).
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("private.service.prefetch.depth", ring, BoundedRing::size)
+                .description("Private messages currently buffered")
+                .register(registry);
+        FunctionCounter.builder("private.service.prefetch.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Private messages served from the prefetch buffer")
+                .register(registry);
+        FunctionCounter.builder("private.service.prefetch.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Private messages requested while the prefetch buffer was empty")
+                .register(registry);
+        FunctionTimer.builder("private.service.prefetch.refill", this,
+                        p -> p.refills.sum(), p -> p.refillNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Latency of the private-service batch requests refilling the buffer")
+                .register(registry);
+        FunctionCounter.builder("private.service.prefetch.refill.failures", refillFailures, LongAdder::sum)
+                .description("Failed private-service batch requests")
+                .register(registry);
+    }
+
+    private void maybeRefill() {
+        if (ring.size() <= lowWatermark
+                && System.currentTimeMillis() >= retryAt
+                && !refresher.isShutdown()
+                && refilling.compareAndSet(false, true)) {
+            refresher.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        boolean failed = false;
+        // DOC - refills are not part of any request, so they get their own correlation id
+        MDC.put(CORRELATION_MDC_KEY, "prefetch-" + UUID.randomUUID());
+        try {
+            int depth;
+            while ((depth = ring.size()) < highWatermark) {
+                long start = System.nanoTime();
+                List<Message> batch = fetcher.apply(Math.min(batchSize, highWatermark - depth));
+                refillNanos.add(System.nanoTime() - start);
+                refills.increment();
+                if (batch.isEmpty() || !offerAll(batch)) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            refillFailures.increment();
+            retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+            logger.warn("Private message prefetch failed, retrying in {}ms: {}", RETRY_DELAY_MILLIS, e.getMessage());
+        } finally {
+            MDC.remove(CORRELATION_MDC_KEY);
+            refilling.set(false);
+        }
+
+        // requests may have drained the buffer while we were finishing
+        if (!failed) {
+            maybeRefill();
+        }
+    }
+
+    private boolean offerAll(List<Message> batch) {
+        for (Message message : batch) {
+            if (!ring.offer(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
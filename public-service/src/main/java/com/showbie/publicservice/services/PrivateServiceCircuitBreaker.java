@@ -0,0 +1,275 @@
+package com.showbie.publicservice.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker for private-service calls, so that a slow or failing
+ * private-service is answered by a fallback instead of tying up a request
+ * thread for the whole HTTP timeout.
+ * <ul>
+ *   <li>CLOSED: calls are made and their outcomes kept in a window of the last
+ *   {@code windowSize} calls; a call fails if it throws or takes at least
+ *   {@code slowCallMillis}. Once the window holds {@code minimumCalls} calls and
+ *   the failure rate reaches {@code failureRatePercent} the breaker opens.</li>
+ *   <li>OPEN: calls are short-circuited for {@code openMillis}.</li>
+ *   <li>HALF_OPEN: up to {@code halfOpenProbes} calls are let through; the breaker
+ *   closes (with an empty window) when they all succeed and opens again as soon
+ *   as one fails.</li>
+ * </ul>
+ * While closed, {@link #tryAcquire(long)} only reads a volatile field and
+ * {@link #onResult} records into the window with atomics; the lock is only taken
+ * to change state (and the change is logged after releasing it).
+ */
+public class PrivateServiceCircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    private final int windowSize;
+    // DOC - replaced (rather than cleared) on closing, so a call still recording
+    //       into the old window cannot corrupt the new one
+    private volatile Window window;
+
+    // DOC - guarded by this
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+
+    private final LongAdder shortCircuits = new LongAdder();
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    /**
+     * @param windowSize         Number of recent calls the failure rate is taken over.
+     * @param minimumCalls       Calls needed in the window before the breaker can open.
+     * @param failureRatePercent Failure rate (failed or slow calls) that opens the breaker.
+     * @param slowCallMillis     Latency at or above which a call counts as failed.
+     * @param openMillis         Time calls are short-circuited before probing private-service.
+     * @param halfOpenProbes     Successful probe calls needed to close the breaker.
+     */
+    public PrivateServiceCircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent,
+                                        long slowCallMillis, long openMillis, int halfOpenProbes) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Breaker window must satisfy 1 <= minimum calls <= window size");
+        }
+        if (failureRatePercent < 1 || failureRatePercent > 100) {
+            throw new IllegalArgumentException("Breaker failure rate must be between 1 and 100 percent");
+        }
+        if (halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Breaker half-open probes must be positive");
+        }
+        this.windowSize = windowSize;
+        this.window = new Window(windowSize);
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+        for (State target : State.values()) {
+            transitions.put(target, new LongAdder());
+        }
+    }
+
+    /**
+     * Ask to make a call; every permitted call must be followed by {@link #onResult}.
+     *
+     * @param now Current time in milliseconds.
+     * @return {@code false} if the call is short-circuited and the fallback should be used.
+     */
+    public boolean tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (shortCircuit(now)) {
+            return false;
+        }
+
+        State from = null;
+        boolean permitted;
+        synchronized (this) {
+            if (state == State.OPEN && now >= openUntil) {
+                from = transition(State.HALF_OPEN);
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            permitted = state == State.CLOSED || (state == State.HALF_OPEN && probesStarted++ < halfOpenProbes);
+        }
+        if (from != null) {
+            logTransition(from, State.HALF_OPEN);
+        }
+        if (!permitted) {
+            shortCircuits.increment();
+        }
+        return permitted;
+    }
+
+    /**
+     * Short-circuit a call without asking to make it, e.g. before handing it to
+     * another thread which will then {@link #tryAcquire}.
+     *
+     * @param now Current time in milliseconds.
+     * @return {@code true} if the breaker is open and the fallback should be used.
+     */
+    public boolean shortCircuit(long now) {
+        if (state == State.OPEN && now < openUntil) {
+            shortCircuits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param succeeded     Whether the call returned a message.
+     * @param latencyMillis Call latency in milliseconds.
+     * @param now           Current time in milliseconds.
+     */
+    public void onResult(boolean succeeded, long latencyMillis, long now) {
+        boolean failed = !succeeded || latencyMillis >= slowCallMillis;
+        switch (state) {
+            case CLOSED:
+                if (window.record(failed, minimumCalls, failureRatePercent)) {
+                    onFailureRateReached(now);
+                }
+                break;
+            case HALF_OPEN:
+                onProbeResult(failed, now);
+                break;
+            default:
+                // DOC - a call started before the breaker opened; the breaker already knows
+        }
+    }
+
+    /**
+     * @return Current breaker state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Breaker metrics (private.service.breaker.*).
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("private.service.breaker.state", this, breaker -> breaker.state.ordinal())
+                .description("Breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        FunctionCounter.builder("private.service.breaker.short-circuits", shortCircuits, LongAdder::sum)
+                .description("Private-service calls answered by the fallback without calling private-service")
+                .register(registry);
+        for (Map.Entry<State, LongAdder> entry : transitions.entrySet()) {
+            FunctionCounter.builder("private.service.breaker.transitions", entry.getValue(), LongAdder::sum)
+                    .tag("state", entry.getKey().name().toLowerCase())
+                    .description("Breaker transitions into the state")
+                    .register(registry);
+        }
+    }
+
+    private void onFailureRateReached(long now) {
+        State from;
+        synchronized (this) {
+            // DOC - several calls may reach the rate at once; only the first opens
+            if (state != State.CLOSED) {
+                return;
+            }
+            from = open(now);
+        }
+        logTransition(from, State.OPEN);
+    }
+
+    private void onProbeResult(boolean failed, long now) {
+        State from;
+        State target;
+        synchronized (this) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failed) {
+                from = open(now);
+                target = State.OPEN;
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                window = new Window(windowSize);
+                from = transition(State.CLOSED);
+                target = State.CLOSED;
+            } else {
+                return;
+            }
+        }
+        logTransition(from, target);
+    }
+
+    private State open(long now) {
+        openUntil = now + openMillis;
+        return transition(State.OPEN);
+    }
+
+    /**
+     * Change state, holding the lock.
+     *
+     * @return The previous state.
+     */
+    private State transition(State target) {
+        State from = state;
+        state = target;
+        transitions.get(target).increment();
+        return from;
+    }
+
+    private void logTransition(State from, State target) {
+        logger.warn("Private-service circuit breaker {} -> {}", from, target);
+    }
+
+    /**
+     * Outcomes of the last calls as a ring.
+     */
+    private static final class Window {
+        private static final int SUCCEEDED = 1;
+        private static final int FAILED = 2;
+
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private Window(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        /**
+         * @return Whether the window now holds enough calls and its failure rate is reached.
+         */
+        private boolean record(boolean failed, int minimumCalls, int failureRatePercent) {
+            long call = calls.getAndIncrement();
+            int size = outcomes.length();
+            int replaced = outcomes.getAndSet((int) (call % size), failed ? FAILED : SUCCEEDED);
+            int change = (failed ? 1 : 0) - (replaced == FAILED ? 1 : 0);
+            int windowFailures = change == 0 ? failures.get() : failures.addAndGet(change);
+            long windowCalls = Math.min(call + 1, size);
+            return windowCalls >= minimumCalls && windowFailures * 100L >= failureRatePercent * windowCalls;
+        }
+    }
+}
@@ -1,20 +1,40 @@
 package com.showbie.publicservice.services;
 
-import com.showbie.common.http.security.TokenGenerator;
+import com.showbie.common.http.security.ServiceTokenHolder;
+import com.showbie.common.metrics.StageTimer;
+import com.showbie.common.metrics.StageTimers;
 import com.showbie.common.models.Message;
+import com.showbie.common.services.MessageService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST client for the private-service.
+ * <p>
+ * Message calls go through a {@link PrivateServiceCircuitBreaker}
+ * ({@code private.service.breaker.enabled}); while it is open they are answered
+ * at once by a fallback message with the {@code private.service.breaker.fallback-origin}
+ * origin: the {@code private.service.breaker.fallback-text}, or a locally generated
+ * phrase when that is empty. Calls can also be hedged ({@code private.service.hedge.enabled},
+ * see {@link PrivateServiceHedger}).
  */
 @Service
 public class PrivateServiceClient {
@@ -23,16 +43,115 @@ public class PrivateServiceClient {
     @Value("${private.service.host.uri}")       // startup will be halted if this is undefined
     private String hostUri;
 
+    @Value("${private.service.messages.uri}")   // startup will be halted if this is undefined
+    private String messagesUri;
+
     @Value("${private.service.auth.token.key}") // startup will be halted if this is undefined
     private String tokenSigningKey;
 
+    @Value("${private.service.auth.token.lifetime:30000}")
+    private long tokenLifetime;
+
+    @Value("${private.service.auth.token.refresh-margin:10000}")
+    private long tokenRefreshMargin;
+
+    @Value("${private.service.prefetch.enabled:false}")
+    private boolean prefetchEnabled;
+
+    @Value("${private.service.prefetch.capacity:256}")
+    private int prefetchCapacity;
+
+    @Value("${private.service.prefetch.low-watermark:64}")
+    private int prefetchLowWatermark;
+
+    @Value("${private.service.prefetch.high-watermark:192}")
+    private int prefetchHighWatermark;
+
+    @Value("${private.service.prefetch.batch-size:50}")
+    private int prefetchBatchSize;
+
+    @Value("${private.service.breaker.enabled:true}")
+    private boolean breakerEnabled;
+
+    @Value("${private.service.breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${private.service.breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${private.service.breaker.failure-rate:50}")
+    private int breakerFailureRate;
+
+    @Value("${private.service.breaker.slow-call:1000}")
+    private long breakerSlowCall;
+
+    @Value("${private.service.breaker.open-duration:5000}")
+    private long breakerOpenDuration;
+
+    @Value("${private.service.breaker.half-open-probes:3}")
+    private int breakerHalfOpenProbes;
+
+    @Value("${private.service.breaker.fallback-origin:degraded}")
+    private String fallbackOrigin;
+
+    @Value("${private.service.breaker.fallback-text:}")
+    private String fallbackText;
+
+    @Value("${private.service.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${private.service.hedge.percentile:95}")
+    private int hedgePercentile;
+
+    @Value("${private.service.hedge.min-delay:5}")
+    private long hedgeMinDelay;
+
+    @Value("${private.service.hedge.budget:10}")
+    private int hedgeBudget;
+
     private RestTemplate restTemplate;
+    private TaskExecutor executor;
+    private TaskExecutor hedgeExecutor;
+    private MeterRegistry meterRegistry;
+    private ServiceTokenHolder serviceTokenHolder;
+    private PrivateMessagePrefetcher prefetcher;
+    private PrivateServiceCircuitBreaker breaker;
+    private PrivateServiceHedger hedger;
+    private MessageService messageService;
+    private StageTimers stageTimers;
+    private StageTimer tokenTimer;
+    private StageTimer callTimer;
 
     @Autowired
     private void setRestTemplate(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
+    @Autowired
+    private void setExecutor(@Qualifier("privateServiceExecutor") TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Autowired
+    private void setHedgeExecutor(@Qualifier("privateServiceHedgeExecutor") TaskExecutor hedgeExecutor) {
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    @Autowired
+    private void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Autowired
+    private void setMessageService(MessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    @Autowired
+    private void setStageTimers(StageTimers stageTimers) {
+        this.stageTimers = stageTimers;
+    }
+
     @PostConstruct
     public void showInfo() {
         // log the (obfuscated) token key and supportedScopes for diagnosing configuration issues
@@ -44,30 +163,178 @@ public class PrivateServiceClient {
         logger.info("DIAGNOSTIC: will call {} using key={}", hostUri, obfuscatedKey);
     }
 
+    @PostConstruct
+    public void createStageTimers() {
+        tokenTimer = stageTimers.create("private.token", "Getting the token for a private-service call");
+        callTimer = stageTimers.create("private.call", "Calling private-service for a message, including reading the response");
+    }
+
+    @PostConstruct
+    public void startServiceToken() {
+        serviceTokenHolder = new ServiceTokenHolder(tokenSigningKey, tokenLifetime, tokenRefreshMargin, "PRIVATE_SERVICE");
+    }
+
+    @PreDestroy
+    public void stopServiceToken() {
+        serviceTokenHolder.close();
+    }
+
+    @PostConstruct
+    public void startPrefetch() {
+        if (prefetchEnabled) {
+            prefetcher = new PrivateMessagePrefetcher(this::getMessages, prefetchCapacity,
+                    prefetchLowWatermark, prefetchHighWatermark, prefetchBatchSize);
+            prefetcher.bindTo(meterRegistry);
+            prefetcher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stopPrefetch() {
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+    }
+
+    @PostConstruct
+    public void startBreaker() {
+        if (breakerEnabled) {
+            breaker = new PrivateServiceCircuitBreaker(breakerWindowSize, breakerMinimumCalls, breakerFailureRate,
+                    breakerSlowCall, breakerOpenDuration, breakerHalfOpenProbes);
+            breaker.bindTo(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void startHedging() {
+        if (hedgeEnabled) {
+            hedger = new PrivateServiceHedger(this::exchangeMessage, hedgeExecutor, hedgePercentile, hedgeMinDelay, hedgeBudget);
+            hedger.bindTo(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void stopHedging() {
+        if (hedger != null) {
+            hedger.close();
+        }
+    }
+
+    /**
+     * Get a message from private-service without blocking the calling thread;
+     * the request is made on the private-service executor unless a prefetched
+     * message is available.
+     */
+    public CompletableFuture<Message> getMessageAsync() {
+        // DOC - as getMessage(), prefetched messages are served even while the breaker is open
+        Message message = prefetcher == null ? null : prefetcher.poll();
+        if (message != null) {
+            return CompletableFuture.completedFuture(message);
+        }
+
+        // DOC - short-circuit on the calling thread rather than queueing for the executor
+        if (breaker != null && breaker.shortCircuit(System.currentTimeMillis())) {
+            return CompletableFuture.completedFuture(fallbackMessage());
+        }
+        return CompletableFuture.supplyAsync(this::getMessage, executor);
+    }
+
+    /**
+     * Get a message from private-service; served from the prefetch buffer when
+     * enabled ({@code private.service.prefetch.enabled=true}) and not empty.
+     */
     public Message getMessage() {
-        // DOC - Usually an auth provider is used to obtain a token at some
-        //       (small) cost; there it makes sense to cache the token for
-        //       reuse until it approaches the expiry time. Here we create
-        //       our token so we just make a new one for every request.
-        String token = generateShortLivedToken();
+        Message message = prefetcher == null ? null : prefetcher.poll();
+        if (message != null) {
+            return message;
+        }
+        return fetchMessage();
+    }
 
-        // create required headers (correlation id should be automatically added)
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-        headers.setBearerAuth(token);
+    private Message fetchMessage() {
+        if (!acquireBreaker()) {
+            return fallbackMessage();
+        }
+        return callPrivateService();
+    }
+
+    private boolean acquireBreaker() {
+        return breaker == null || breaker.tryAcquire(System.currentTimeMillis());
+    }
+
+    private Message fallbackMessage() {
+        String text = fallbackText.isEmpty() ? messageService.getPhrase() : fallbackText;
+        return new Message(text, fallbackOrigin);
+    }
+
+    /**
+     * Call private-service for a message (hedged when {@code private.service.hedge.enabled=true}),
+     * reporting the outcome to the breaker (when enabled) which must already have
+     * permitted the call.
+     */
+    private Message callPrivateService() {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            Message message = hedger == null ? exchangeMessage() : hedger.call();
+            succeeded = true;
+            return message;
+        } finally {
+            if (breaker != null) {
+                breaker.onResult(succeeded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        System.currentTimeMillis());
+            }
+        }
+    }
+
+    private Message exchangeMessage() {
+        long start = System.nanoTime();
+        HttpEntity<String> requestEntity = createRequestEntity();
+        tokenTimer.record(start);
 
-        // make the request
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        start = System.nanoTime();
         ResponseEntity<Message> response = restTemplate.exchange(
                 hostUri,
                 HttpMethod.GET,
-                entity,
+                requestEntity,
                 Message.class
         );
+        callTimer.record(start);
         return response.getBody();
     }
 
-    private String generateShortLivedToken() {
-        return TokenGenerator.createTokenHS256(tokenSigningKey, 30000, "PRIVATE_SERVICE");
+    /**
+     * Get several messages from private-service in a single request.
+     *
+     * @param count Number of messages wanted; private-service caps the batch
+     *              size so fewer may be returned.
+     */
+    public List<Message> getMessages(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Message count must be positive");
+        }
+
+        String uri = UriComponentsBuilder.fromHttpUrl(messagesUri)
+                .queryParam("count", count)
+                .toUriString();
+        ResponseEntity<Message[]> response = restTemplate.exchange(
+                uri,
+                HttpMethod.GET,
+                createRequestEntity(),
+                Message[].class
+        );
+        return Arrays.asList(Objects.requireNonNull(response.getBody()));
+    }
+
+    private HttpEntity<String> createRequestEntity() {
+        // DOC - the token is cached for reuse and refreshed in the background
+        //       before it approaches the expiry time
+        String token = serviceTokenHolder.getToken();
+
+        // create required headers (correlation id should be automatically added)
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(token);
+        return new HttpEntity<>(headers);
     }
 }
@@ -0,0 +1,301 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.http.client.AbortableRequest;
+import com.showbie.common.models.Message;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.showbie.common.http.security.TokenValidationFilter.CORRELATION_MDC_KEY;
+
+/**
+ * Hedged private-service calls: when a call has not answered within the
+ * observed latency percentile (p95 by default) of recent calls, an identical
+ * second call is sent, the first answer is used and the other call is aborted
+ * (see {@link AbortableRequest}). One slow replica then costs a hedge delay
+ * instead of setting the tail latency.
+ * <p>
+ * Hedges are limited by a budget: each call earns {@code budgetPercent}% of a
+ * hedge, up to a small burst, so hedging adds at most that much load even when
+ * private-service as a whole slows down. No hedges are sent until enough call
+ * latencies have been observed; failed calls (e.g. timeouts) count as well, so a
+ * degrading private-service raises the delay instead of drawing more hedges.
+ * <p>
+ * Hedges wait on a timer of their own, cancelled when the call answers, so a
+ * call answered in time never reaches the executor.
+ */
+public class PrivateServiceHedger implements MeterBinder, AutoCloseable {
+    private static final int SAMPLES = 512;
+    private static final int MIN_SAMPLES = 100;
+    private static final int UPDATE_INTERVAL = 64;
+    private static final int MAX_BURST = 10;
+
+    private final Supplier<Message> call;
+    private final Executor executor;
+    private final int percentile;
+    private final long minDelayNanos;
+    private final int budgetPercent;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // DOC - latencies of recent calls (but not aborted ones), overwritten round robin
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final long[] sorted = new long[SAMPLES];
+    private volatile long delayNanos = -1;
+
+    // DOC - hedge budget in hundredths of a hedge
+    private final AtomicLong budget = new AtomicLong();
+
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param call           Makes one private-service call (a blocking http request).
+     * @param executor       Runs hedges.
+     * @param percentile     Latency percentile of recent calls after which a call is hedged.
+     * @param minDelayMillis Minimum hedge delay in milliseconds.
+     * @param budgetPercent  Hedges allowed as a percentage of calls.
+     */
+    public PrivateServiceHedger(@NonNull Supplier<Message> call, @NonNull Executor executor, int percentile,
+                                long minDelayMillis, int budgetPercent) {
+        this(call, executor, percentile, minDelayMillis, budgetPercent,
+                new ScheduledThreadPoolExecutor(1, runnable -> {
+                    Thread thread = new Thread(runnable, "private-service-hedge");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * As above, with the timer hedges wait on (owned, and shut down on close).
+     */
+    PrivateServiceHedger(Supplier<Message> call, Executor executor, int percentile, long minDelayMillis,
+                         int budgetPercent, ScheduledThreadPoolExecutor scheduler) {
+        if (percentile < 1 || percentile > 99) {
+            throw new IllegalArgumentException("Hedge percentile must be between 1 and 99");
+        }
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("Hedge budget must be between 0 and 100 percent");
+        }
+        this.call = call;
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.budgetPercent = budgetPercent;
+        this.scheduler = scheduler;
+        // DOC - most calls answer in time, so most timers are cancelled: drop them at once
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Make a call on the calling thread, hedged on the executor.
+     */
+    public Message call() {
+        Attempts attempts = new Attempts();
+        scheduleHedge(attempts);
+        attempts.run(attempts.primary, attempts.hedge, false);
+        try {
+            return attempts.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @return Current hedge delay in nanoseconds, or -1 while too few calls have been observed.
+     */
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Stop hedging.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Hedging metrics (private.service.hedge.*).
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("private.service.hedge.requests", hedges, LongAdder::sum)
+                .tag("result", "sent")
+                .description("Hedged private-service calls")
+                .register(registry);
+        FunctionCounter.builder("private.service.hedge.requests", overBudget, LongAdder::sum)
+                .tag("result", "over-budget")
+                .description("Private-service calls not hedged as the hedge budget was spent")
+                .register(registry);
+        FunctionCounter.builder("private.service.hedge.requests", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .description("Private-service calls not hedged as the executor rejected the hedge")
+                .register(registry);
+        FunctionCounter.builder("private.service.hedge.wins", hedgeWins, LongAdder::sum)
+                .description("Hedged private-service calls answered by the hedge")
+                .register(registry);
+        TimeGauge.builder("private.service.hedge.delay", this, TimeUnit.NANOSECONDS, h -> Math.max(h.delayNanos, 0))
+                .description("Time after which a private-service call is hedged")
+                .register(registry);
+    }
+
+    private void scheduleHedge(Attempts attempts) {
+        earnBudget();
+        long delay = delayNanos;
+        if (delay < 0) {
+            return;
+        }
+
+        // DOC - the hedge is logged under the request's correlation id
+        String correlationId = MDC.get(CORRELATION_MDC_KEY);
+        ScheduledFuture<?> timer;
+        try {
+            timer = scheduler.schedule(() -> startHedge(attempts, correlationId), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return; // closed
+        }
+        attempts.result.whenComplete((message, e) -> timer.cancel(false));
+    }
+
+    /**
+     * On the timer thread: hand a hedge to the executor, unless the call has
+     * answered or the budget is spent.
+     */
+    private void startHedge(Attempts attempts, String correlationId) {
+        if (attempts.result.isDone()) {
+            return;
+        }
+        if (!spendBudget()) {
+            overBudget.increment();
+            return;
+        }
+
+        attempts.running.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                if (correlationId != null) {
+                    MDC.put(CORRELATION_MDC_KEY, correlationId);
+                }
+                try {
+                    attempts.run(attempts.hedge, attempts.primary, true);
+                } finally {
+                    MDC.remove(CORRELATION_MDC_KEY);
+                }
+            });
+            hedges.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            budget.addAndGet(100);
+            attempts.cancelHedge();
+        }
+    }
+
+    private void earnBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= MAX_BURST * 100L) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(current + budgetPercent, MAX_BURST * 100L)));
+    }
+
+    private boolean spendBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < 100) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - 100));
+        return true;
+    }
+
+    private void recordLatency(long nanos) {
+        long count = sampleCount.getAndIncrement();
+        samples.set((int) (count % SAMPLES), nanos);
+        if (count + 1 >= MIN_SAMPLES && (count + 1) % UPDATE_INTERVAL == 0 && updating.compareAndSet(false, true)) {
+            try {
+                updateDelay((int) Math.min(count + 1, SAMPLES));
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void updateDelay(int count) {
+        for (int i = 0; i < count; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted, 0, count);
+        long latency = sorted[Math.min(count - 1, count * percentile / 100)];
+        delayNanos = Math.max(latency, minDelayNanos);
+    }
+
+    /**
+     * The primary call and its (possible) hedge.
+     */
+    private final class Attempts {
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+        private final AbortableRequest primary = new AbortableRequest();
+        private final AbortableRequest hedge = new AbortableRequest();
+        private final AtomicInteger running = new AtomicInteger(1);
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private volatile RuntimeException failure;
+
+        private void run(AbortableRequest own, AbortableRequest other, boolean isHedge) {
+            long start = System.nanoTime();
+            try {
+                Message value = own.run(call);
+                recordLatency(System.nanoTime() - start);
+                if (answered.compareAndSet(false, true)) {
+                    other.abort();
+                    if (isHedge) {
+                        hedgeWins.increment();
+                    }
+                    result.complete(value);
+                }
+            } catch (RuntimeException e) {
+                // DOC - an aborted call lost the race; its latency says nothing of private-service
+                if (!own.isAborted()) {
+                    recordLatency(System.nanoTime() - start);
+                }
+                // DOC - the other call may still answer; fail once neither can
+                failure = e;
+                if (running.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void cancelHedge() {
+            // DOC - the primary may have failed while the hedge was being handed over
+            if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -4,8 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT, properties = {
-        "auth.token.key=ABC123",                 // required property
-        "private.service.auth.token.key=DEF456", // required property
+        "auth.token.key=ABC123",                                       // required property
+        "private.service.auth.token.key=DEF456",                       // required property
+        "private.service.host.uri=http://localhost:8082/message",      // required property
+        "private.service.messages.uri=http://localhost:8082/messages", // required property
 })
 class ApplicationTests {
 
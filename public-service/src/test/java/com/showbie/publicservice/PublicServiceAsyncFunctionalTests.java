@@ -0,0 +1,20 @@
+package com.showbie.publicservice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the public-service functional tests against the asynchronous message
+ * endpoint ({@code message.async.enabled=true}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.token.key=ABC123",                                       // required property
+        "private.service.auth.token.key=DEF456",                       // required property
+        "private.service.host.uri=http://localhost:8082/message",      // required property
+        "private.service.messages.uri=http://localhost:8082/messages", // required property
+        "spring.main.allow-bean-definition-overriding=true",           // required to load our mocks below
+        "message.async.enabled=true",
+})
+@Import(PublicServiceFunctionalTests.TestConfig.class)
+public class PublicServiceAsyncFunctionalTests extends PublicServiceFunctionalTests {
+}
@@ -12,7 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
-import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.*;
@@ -31,9 +31,11 @@ import static org.mockito.Mockito.*;
  */
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
-        "auth.token.key=ABC123",                             // required property
-        "private.service.auth.token.key=DEF456",             // required property
-        "spring.main.allow-bean-definition-overriding=true", // required to load our mocks below
+        "auth.token.key=ABC123",                                       // required property
+        "private.service.auth.token.key=DEF456",                       // required property
+        "private.service.host.uri=http://localhost:8082/message",      // required property
+        "private.service.messages.uri=http://localhost:8082/messages", // required property
+        "spring.main.allow-bean-definition-overriding=true",           // required to load our mocks below
 })
 public class PublicServiceFunctionalTests {
     @TestConfiguration
@@ -103,6 +105,72 @@ public class PublicServiceFunctionalTests {
         assertThat(messages.get(0).getText()).isEqualTo(privateMessage);
     }
 
+    @Test
+    void should_return_messages_in_jackson_wire_format() throws JsonProcessingException {
+        String privateMessage = "Don’t \"quote\" me \\ – ok";
+        doReturn(new Message(privateMessage, "mock"))
+                .when(privateServiceClientMock).getMessage();
+        String token = TokenGenerator.createTokenHS256(
+                authTokenSigningKey,
+                5000,
+                "PUBLIC_SERVICE", "PRIVATE_SERVICE"
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(token);
+
+        String url = String.format("http://%s:%d/%s", host, port, resource);
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // the precomputed bytes must match what Jackson writes for the same messages
+        Message[] messages = objectMapper.readValue(response.getBody(), Message[].class);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(response.getBody()).isEqualTo(objectMapper.writeValueAsString(messages));
+        assertThat(messages.length).isEqualTo(2);
+        assertThat(messages[1].getText()).isEqualTo(privateMessage);
+    }
+
+    @Test
+    void should_not_create_a_session() {
+        String token = TokenGenerator.createTokenHS256(authTokenSigningKey, 5000, "PUBLIC_SERVICE");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(token);
+
+        String url = String.format("http://%s:%d/%s", host, port, resource);
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // the stateless security chain keeps nothing between requests
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+        assertThat(response.getHeaders().getCacheControl()).contains("no-store");
+
+        // nor is the rejected request saved to a session for after authentication
+        HttpClientErrorException exception = null;
+        try {
+            restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+            fail("should not be reached");
+        } catch (HttpClientErrorException ex) {
+            exception = ex;
+        }
+        assertThat(exception.getRawStatusCode()).isEqualTo(401);
+        assertThat(exception.getResponseHeaders().containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+    }
+
+    @Test
+    void should_expose_stage_timings_without_a_token() {
+        makeRequestWithScopes("PUBLIC_SERVICE");
+
+        String url = String.format("http://%s:%d/actuator/metrics/request.stage", host, port);
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        // the metrics endpoint is outside the token requirement
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("\"name\":\"request.stage\"");
+        assertThat(response.getBody()).contains("auth.token");
+        assertThat(response.getBody()).contains("message.public");
+    }
+
     @Test
     void should_return_messages_public_and_internal_service_happy_path() {
         String privateMessage = "Hello World!";
@@ -264,6 +332,94 @@ public class PublicServiceFunctionalTests {
         assertClientError(exception, 401, "Unauthorized", "Authentication is required");
     }
 
+    @Test
+    void should_stream_messages_as_ndjson() throws JsonProcessingException {
+        clearInvocations(privateServiceClientMock);
+        doReturn(Arrays.asList(new Message("One", "mock"), new Message("Two", "mock")))
+                .when(privateServiceClientMock).getMessages(anyInt());
+
+        String body = makeStreamRequest(MediaType.APPLICATION_NDJSON, 5000, "?rate=100&count=6",
+                "PUBLIC_SERVICE", "PRIVATE_SERVICE");
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length).isEqualTo(6);
+        for (int i = 0; i < lines.length; i++) {
+            Message message = objectMapper.readValue(lines[i], Message.class);
+            assertThat(message.getOrigin()).isEqualTo(i % 2 == 0 ? "public" : "mock");
+        }
+        // DOC - three private messages, fetched in batches rather than one at a time
+        verify(privateServiceClientMock, never()).getMessage();
+        verify(privateServiceClientMock, times(2)).getMessages(anyInt());
+    }
+
+    @Test
+    void should_stream_messages_as_server_sent_events_until_count() {
+        String body = makeStreamRequest(MediaType.TEXT_EVENT_STREAM, 5000, "?rate=100&count=3", "PUBLIC_SERVICE");
+
+        assertThat(countOccurrences(body, "\"origin\":\"public\"")).isEqualTo(3);
+        assertThat(body.contains("event:end\ndata:count")).isTrue();
+    }
+
+    @Test
+    void should_end_message_stream_when_token_expires() {
+        // DOC - token expiry has a resolution of one second, so this token lasts 1.5 to 2.5 seconds
+        String body = makeStreamRequest(MediaType.TEXT_EVENT_STREAM, 2500, "?rate=10&count=1000", "PUBLIC_SERVICE");
+
+        int messages = countOccurrences(body, "\"origin\":\"public\"");
+        assertThat(messages >= 15 && messages <= 26).isTrue();
+        assertThat(body.contains("event:end\ndata:expired")).isTrue();
+    }
+
+    @Test
+    void should_return_401_if_message_stream_not_authenticated() throws JsonProcessingException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_NDJSON));
+        String url = String.format("http://%s:%d/messages/stream", host, port);
+        try {
+            restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+            fail("Expected HttpClientErrorException");
+        } catch (HttpClientErrorException ex) {
+            assertThat(ex.getRawStatusCode()).isEqualTo(401);
+        }
+    }
+
+    @Test
+    void should_return_400_if_message_stream_count_not_positive() throws JsonProcessingException {
+        HttpClientErrorException exception = null;
+        try {
+            makeStreamRequest(MediaType.APPLICATION_NDJSON, 5000, "?rate=10&count=-1", "PUBLIC_SERVICE");
+            fail("should not be reached");
+        } catch (HttpClientErrorException ex) {
+            exception = ex;
+        }
+
+        assertClientError(exception, 400, "Bad Request", "Stream count must be positive");
+    }
+
+    private String makeStreamRequest(MediaType mediaType, long tokenLifetime, String query, String... scope) {
+        String token = TokenGenerator.createTokenHS256(
+                authTokenSigningKey,
+                tokenLifetime,
+                scope
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(mediaType));
+        headers.setBearerAuth(token);
+        String url = String.format("http://%s:%d/messages/stream%s", host, port, query);
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(mediaType.isCompatibleWith(response.getHeaders().getContentType())).isTrue();
+        return response.getBody();
+    }
+
+    private static int countOccurrences(String text, String substring) {
+        int count = 0;
+        for (int i = text.indexOf(substring); i >= 0; i = text.indexOf(substring, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
     private List<Message> makeValidRequest(String resource) {
         String token = TokenGenerator.createTokenHS256(
                 authTokenSigningKey,
@@ -0,0 +1,21 @@
+package com.showbie.publicservice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Runs the public-service functional tests with requests and private-service
+ * calls handled on virtual threads ({@code spring.threads.virtual.enabled=true}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.token.key=ABC123",                                       // required property
+        "private.service.auth.token.key=DEF456",                       // required property
+        "private.service.host.uri=http://localhost:8082/message",      // required property
+        "private.service.messages.uri=http://localhost:8082/messages", // required property
+        "spring.main.allow-bean-definition-overriding=true",           // required to load our mocks below
+        "spring.threads.virtual.enabled=true",
+        "message.async.enabled=true",
+})
+@Import(PublicServiceFunctionalTests.TestConfig.class)
+public class PublicServiceVirtualThreadFunctionalTests extends PublicServiceFunctionalTests {
+}
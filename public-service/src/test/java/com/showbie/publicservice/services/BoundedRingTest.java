@@ -0,0 +1,102 @@
+package com.showbie.publicservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedRingTest {
+
+    @Test
+    public void offerAndPoll_firstInFirstOut() {
+        // arrange
+        BoundedRing<Integer> ring = new BoundedRing<>(4);
+
+        // act
+        ring.offer(1);
+        ring.offer(2);
+        ring.offer(3);
+
+        // assert
+        assertThat(ring.size()).isEqualTo(3);
+        assertThat(ring.poll()).isEqualTo(1);
+        assertThat(ring.poll()).isEqualTo(2);
+        assertThat(ring.poll()).isEqualTo(3);
+        assertThat(ring.poll()).isNull();
+        assertThat(ring.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void offer_full_rejected() {
+        // arrange
+        BoundedRing<Integer> ring = new BoundedRing<>(3); // rounded up to 4
+
+        // act
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+
+        // assert
+        assertThat(ring.capacity()).isEqualTo(4);
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.poll()).isEqualTo(0);
+        assertThat(ring.offer(4)).isTrue();
+    }
+
+    @Test
+    public void invalidCapacity_failure() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedRing<>(0));
+    }
+
+    @Test
+    public void concurrentProducersAndConsumers_eachElementOnce() throws InterruptedException {
+        // arrange
+        BoundedRing<Integer> ring = new BoundedRing<>(64);
+        int producers = 4;
+        int perProducer = 50000;
+        ConcurrentHashMap<Integer, Boolean> consumed = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        ExecutorService threads = Executors.newFixedThreadPool(producers * 2);
+
+        // act
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.execute(() -> {
+                while (done.getCount() > 0) {
+                    Integer element = ring.poll();
+                    if (element == null) {
+                        Thread.yield();
+                    } else {
+                        if (consumed.put(element, Boolean.TRUE) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        boolean completed = done.await(30, TimeUnit.SECONDS);
+        threads.shutdownNow();
+
+        // assert
+        assertThat(completed).isTrue();
+        assertThat(duplicates.get()).isEqualTo(0);
+        assertThat(consumed.size()).isEqualTo(producers * perProducer);
+        assertThat(ring.poll()).isNull();
+    }
+}
@@ -0,0 +1,137 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.models.Message;
+import com.showbie.common.services.MessageService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class MessageStreamerTest {
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final PrivateServiceClient privateServiceClient = mock(PrivateServiceClient.class);
+    private final MessageStreamer streamer = new MessageStreamer();
+
+    MessageStreamerTest() {
+        streamer.setMessageService(new MessageService());
+        streamer.setPrivateServiceClient(privateServiceClient);
+    }
+
+    @Test
+    void stream_paced() {
+        // arrange
+        List<Long> sentAt = new ArrayList<>();
+
+        // act
+        MessageStreamer.End end = streamer.stream(json -> sentAt.add(System.nanoTime()),
+                true, false, null, 50, 5, NEVER);
+
+        // assert -- 5 messages at 50/s take at least 4 intervals of 20ms
+        assertThat(end).isEqualTo(MessageStreamer.End.COUNT);
+        assertThat(sentAt.size()).isEqualTo(5);
+        assertThat(sentAt.get(4) - sentAt.get(0) >= 80_000_000L).isTrue();
+    }
+
+    @Test
+    void stream_slowClient_noBurst() {
+        // arrange -- the client stalls for 200ms (10 intervals) on the first message
+        List<Long> sentAt = new ArrayList<>();
+        MessageStreamer.Sink slowSink = json -> {
+            sentAt.add(System.nanoTime());
+            if (sentAt.size() == 1) {
+                sleep(200);
+            }
+        };
+
+        // act
+        streamer.stream(slowSink, true, false, null, 50, 3, NEVER);
+
+        // assert -- the messages after the stall are still paced, not sent to catch up
+        assertThat(sentAt.get(2) - sentAt.get(1) >= 15_000_000L).isTrue();
+    }
+
+    @Test
+    void stream_privateMessagesFetchedInBatches() {
+        // arrange
+        doReturn(Arrays.asList(new Message("One", "private"), new Message("Two", "private")))
+                .when(privateServiceClient).getMessages(anyInt());
+        List<byte[]> sent = new ArrayList<>();
+
+        // act
+        streamer.stream(sent::add, false, true, null, 1000, 4, NEVER);
+
+        // assert
+        assertThat(sent.size()).isEqualTo(4);
+        verify(privateServiceClient, times(2)).getMessages(anyInt());
+        verify(privateServiceClient, never()).getMessage();
+    }
+
+    @Test
+    void stream_emptyPrivateBatch_retried() {
+        // arrange
+        doReturn(Collections.emptyList())
+                .doReturn(Arrays.asList(new Message("One", "private"), new Message("Two", "private")))
+                .when(privateServiceClient).getMessages(anyInt());
+        List<byte[]> sent = new ArrayList<>();
+
+        // act
+        MessageStreamer.End end = streamer.stream(sent::add, false, true, null, 1000, 2, NEVER);
+
+        // assert
+        assertThat(end).isEqualTo(MessageStreamer.End.COUNT);
+        assertThat(sent.size()).isEqualTo(2);
+        verify(privateServiceClient, times(2)).getMessages(anyInt());
+    }
+
+    @Test
+    void stream_noPrivateMessages_endsAtExpiry() {
+        // arrange
+        doReturn(Collections.emptyList()).when(privateServiceClient).getMessages(anyInt());
+        List<byte[]> sent = new ArrayList<>();
+
+        // act
+        MessageStreamer.End end = streamer.stream(sent::add, false, true, null, 100, 10,
+                System.currentTimeMillis() + 250);
+
+        // assert -- polled at the stream rate rather than failing
+        assertThat(end).isEqualTo(MessageStreamer.End.EXPIRED);
+        assertThat(sent.size()).isEqualTo(0);
+    }
+
+    @Test
+    void stream_clientGone_closed() {
+        // act
+        MessageStreamer.End end = streamer.stream(json -> {
+            throw new IOException("Broken pipe");
+        }, true, false, null, 1000, 10, NEVER);
+
+        // assert
+        assertThat(end).isEqualTo(MessageStreamer.End.CLOSED);
+    }
+
+    @Test
+    void stream_tokenExpired() {
+        // act
+        MessageStreamer.End end = streamer.stream(json -> {
+        }, true, false, null, 10, 100, System.currentTimeMillis() + 250);
+
+        // assert
+        assertThat(end).isEqualTo(MessageStreamer.End.EXPIRED);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
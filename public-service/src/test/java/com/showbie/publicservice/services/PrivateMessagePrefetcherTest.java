@@ -0,0 +1,128 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.models.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrivateMessagePrefetcherTest {
+    private final AtomicInteger fetched = new AtomicInteger();
+    private final IntFunction<List<Message>> fetcher = count -> {
+        List<Message> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Message("message " + fetched.incrementAndGet(), "private"));
+        }
+        return batch;
+    };
+
+    @Test
+    public void start_fillsToHighWatermark() throws InterruptedException {
+        // arrange
+        try (PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(fetcher, 16, 4, 12, 5)) {
+
+            // act
+            prefetcher.start();
+            awaitDepth(prefetcher, 12);
+
+            // assert -- batches of 5, 5 and 2
+            assertThat(prefetcher.getDepth()).isEqualTo(12);
+            assertThat(fetched.get()).isEqualTo(12);
+        }
+    }
+
+    @Test
+    public void poll_servesBufferedMessagesInOrder() throws InterruptedException {
+        // arrange
+        try (PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(fetcher, 16, 4, 12, 5)) {
+            prefetcher.start();
+            awaitDepth(prefetcher, 12);
+
+            // act
+            Message first = prefetcher.poll();
+            Message second = prefetcher.poll();
+
+            // assert
+            assertThat(first.getText()).isEqualTo("message 1");
+            assertThat(second.getText()).isEqualTo("message 2");
+            assertThat(prefetcher.getDepth()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    public void poll_lowWatermark_refills() throws InterruptedException {
+        // arrange
+        try (PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(fetcher, 16, 4, 12, 5)) {
+            prefetcher.start();
+            awaitDepth(prefetcher, 12);
+
+            // act -- drain to the low watermark
+            for (int i = 0; i < 8; i++) {
+                prefetcher.poll();
+            }
+            awaitDepth(prefetcher, 12);
+
+            // assert
+            assertThat(fetched.get()).isEqualTo(20);
+        }
+    }
+
+    @Test
+    public void poll_empty_nullAndCountedAsMiss() {
+        // arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(count -> {
+            throw new IllegalStateException("private-service unavailable");
+        }, 16, 4, 12, 5)) {
+            prefetcher.bindTo(registry);
+
+            // act
+            Message message = prefetcher.poll();
+
+            // assert
+            assertThat(message).isNull();
+            assertThat(registry.get("private.service.prefetch.requests").tag("result", "miss")
+                    .functionCounter().count()).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    public void metrics_depthAndRefills() throws InterruptedException {
+        // arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(fetcher, 16, 4, 12, 5)) {
+            prefetcher.bindTo(registry);
+
+            // act
+            prefetcher.start();
+            awaitDepth(prefetcher, 12);
+            prefetcher.poll();
+
+            // assert
+            assertThat(registry.get("private.service.prefetch.depth").gauge().value()).isEqualTo(11.0);
+            assertThat(registry.get("private.service.prefetch.refill").functionTimer().count()).isEqualTo(3.0);
+            assertThat(registry.get("private.service.prefetch.requests").tag("result", "hit")
+                    .functionCounter().count()).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    public void invalidWatermarks_failure() {
+        assertThrows(IllegalArgumentException.class, () -> new PrivateMessagePrefetcher(fetcher, 16, 12, 4, 5));
+        assertThrows(IllegalArgumentException.class, () -> new PrivateMessagePrefetcher(fetcher, 16, 4, 32, 5));
+        assertThrows(IllegalArgumentException.class, () -> new PrivateMessagePrefetcher(fetcher, 16, 4, 12, 0));
+    }
+
+    private static void awaitDepth(PrivateMessagePrefetcher prefetcher, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (prefetcher.getDepth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
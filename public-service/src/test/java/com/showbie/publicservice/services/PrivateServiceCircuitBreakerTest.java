@@ -0,0 +1,210 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.publicservice.services.PrivateServiceCircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrivateServiceCircuitBreakerTest {
+
+    // window of 10, opens at 50% of at least 4 calls, calls of 100ms or more are slow,
+    // open for 1s, closes after 2 successful probes
+    private final PrivateServiceCircuitBreaker breaker = new PrivateServiceCircuitBreaker(10, 4, 50, 100, 1000, 2);
+
+    @Test
+    public void onResult_failureRateBelowThreshold_staysClosed() {
+        // act
+        call(true, 10, 0);
+        call(true, 10, 0);
+        call(false, 10, 0);
+        call(true, 10, 0);
+        call(true, 10, 0);
+
+        // assert
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire(0)).isTrue();
+    }
+
+    @Test
+    public void onResult_fewerThanMinimumCalls_staysClosed() {
+        // act
+        call(false, 10, 0);
+        call(false, 10, 0);
+        call(false, 10, 0);
+
+        // assert
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void onResult_failureRateReached_opensAndShortCircuits() {
+        // act
+        call(true, 10, 0);
+        call(false, 10, 0);
+        call(true, 10, 0);
+        call(false, 10, 0);
+
+        // assert
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire(999)).isFalse();
+    }
+
+    @Test
+    public void onResult_slowCalls_countAsFailures() {
+        // act
+        call(true, 10, 0);
+        call(true, 10, 0);
+        call(true, 100, 0);
+        call(true, 500, 0);
+
+        // assert
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void onResult_oldCallsLeaveWindow() {
+        // arrange
+        for (int i = 0; i < 10; i++) {
+            call(true, 10, 0);
+        }
+
+        // act -- each failure replaces one of the successes
+        for (int i = 0; i < 4; i++) {
+            call(false, 10, 0);
+        }
+        State afterFour = breaker.getState();
+        call(false, 10, 0);
+
+        // assert -- 5 of the last 10 failed (but only 5 of all 15)
+        assertThat(afterFour).isEqualTo(State.CLOSED);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void tryAcquire_afterOpenDuration_probesThenCloses() {
+        // arrange
+        openAt(0);
+
+        // act
+        boolean first = breaker.tryAcquire(1000);
+        boolean second = breaker.tryAcquire(1000);
+        boolean third = breaker.tryAcquire(1000);
+
+        // assert -- only the probes are let through
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+
+        // closes once the probes succeed
+        breaker.onResult(true, 10, 1010);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(true, 10, 1010);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        // with an empty window
+        call(false, 10, 1020);
+        call(false, 10, 1020);
+        call(false, 10, 1020);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void shortCircuit_onlyWhileOpen() {
+        // arrange
+        boolean closed = breaker.shortCircuit(0);
+        openAt(0);
+
+        // act and assert -- never starts a probe
+        assertThat(closed).isFalse();
+        assertThat(breaker.shortCircuit(999)).isTrue();
+        assertThat(breaker.shortCircuit(1000)).isFalse();
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void onResult_failedProbe_reopens() {
+        // arrange
+        openAt(0);
+        breaker.tryAcquire(1000);
+
+        // act
+        breaker.onResult(false, 10, 1500);
+
+        // assert -- open for another full duration
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire(2499)).isFalse();
+        assertThat(breaker.tryAcquire(2500)).isTrue();
+    }
+
+    @Test
+    public void bindTo_reportsStateTransitionsAndShortCircuits() {
+        // arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breaker.bindTo(registry);
+
+        // act
+        openAt(0);
+        breaker.tryAcquire(10);
+        breaker.tryAcquire(20);
+
+        // assert
+        assertThat(registry.get("private.service.breaker.state").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("private.service.breaker.short-circuits").functionCounter().count()).isEqualTo(2.0);
+        assertThat(registry.get("private.service.breaker.transitions").tag("state", "open")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("private.service.breaker.transitions").tag("state", "closed")
+                .functionCounter().count()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void onResult_concurrentFailures_opensOnce() throws InterruptedException {
+        // arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breaker.bindTo(registry);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (breaker.tryAcquire(0)) {
+                        breaker.onResult(false, 10, 0);
+                    }
+                }
+            });
+        }
+
+        // act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // assert
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(registry.get("private.service.breaker.transitions").tag("state", "open")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void constructor_invalidWindow_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new PrivateServiceCircuitBreaker(10, 11, 50, 100, 1000, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PrivateServiceCircuitBreaker(10, 4, 0, 100, 1000, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PrivateServiceCircuitBreaker(10, 4, 50, 100, 1000, 0));
+    }
+
+    private void openAt(long now) {
+        for (int i = 0; i < 4; i++) {
+            call(false, 10, now);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void call(boolean succeeded, long latencyMillis, long now) {
+        assertThat(breaker.tryAcquire(now)).isTrue();
+        breaker.onResult(succeeded, latencyMillis, now);
+    }
+}
@@ -0,0 +1,73 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.models.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class PrivateServiceClientTest {
+    private final PrivateServiceClient client = new PrivateServiceClient();
+    private final PrivateMessagePrefetcher prefetcher = new PrivateMessagePrefetcher(count -> {
+        List<Message> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Message("message " + (i + 1), "private"));
+        }
+        return batch;
+    }, 16, 4, 12, 5);
+
+    public PrivateServiceClientTest() {
+        // open for a minute, so it stays open throughout
+        PrivateServiceCircuitBreaker breaker = new PrivateServiceCircuitBreaker(10, 4, 50, 100, 60000, 2);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire(now);
+            breaker.onResult(false, 10, now);
+        }
+
+        ReflectionTestUtils.setField(client, "breaker", breaker);
+        ReflectionTestUtils.setField(client, "prefetcher", prefetcher);
+        ReflectionTestUtils.setField(client, "fallbackOrigin", "degraded");
+        ReflectionTestUtils.setField(client, "fallbackText", "fallback");
+        ReflectionTestUtils.setField(client, "executor", (TaskExecutor) runnable -> {
+            throw new IllegalStateException("private-service should not be called");
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        prefetcher.close();
+    }
+
+    @Test
+    public void getMessageAsync_breakerOpen_servesPrefetched() throws InterruptedException {
+        // arrange
+        prefetcher.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (prefetcher.getDepth() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // act
+        Message message = client.getMessageAsync().join();
+
+        // assert -- the buffered message rather than the fallback
+        assertThat(message.getText()).isEqualTo("message 1");
+        assertThat(message.getOrigin()).isEqualTo("private");
+    }
+
+    @Test
+    public void getMessageAsync_breakerOpenNothingPrefetched_fallback() {
+        // act
+        Message message = client.getMessageAsync().join();
+
+        // assert
+        assertThat(message.getText()).isEqualTo("fallback");
+        assertThat(message.getOrigin()).isEqualTo("degraded");
+    }
+}
@@ -0,0 +1,247 @@
+package com.showbie.publicservice.services;
+
+import com.showbie.common.http.client.AbortableRequest;
+import com.showbie.common.models.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PrivateServiceHedgerTest {
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final Executor executor = runnable -> {
+        submitted.incrementAndGet();
+        pool.execute(runnable);
+    };
+    private final List<PrivateServiceHedger> hedgers = new ArrayList<>();
+    private final CountDownLatch hedgeTimerRan = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // DOC - answers at once, except that calls on slowThread (the primary) wait for
+    //       release or, like an aborted http request, fail when aborted
+    private volatile Thread slowThread;
+    private final Supplier<Message> call = () -> {
+        int number = calls.incrementAndGet();
+        if (Thread.currentThread() == slowThread) {
+            AbortableRequest request = AbortableRequest.current();
+            try {
+                while (!release.await(1, TimeUnit.MILLISECONDS)) {
+                    if (request.isAborted()) {
+                        throw new IllegalStateException("Request aborted");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Message("slow", "private");
+        }
+        return new Message("message " + number, "private");
+    };
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        hedgers.forEach(PrivateServiceHedger::close);
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void call_tooFewSamples_noDelay() {
+        // arrange
+        PrivateServiceHedger hedger = hedger(call, executor, 5, 10);
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            hedger.call();
+        }
+
+        // assert
+        assertThat(hedger.getDelayNanos()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void call_enoughSamples_delayIsAtLeastMinimum() {
+        // arrange
+        PrivateServiceHedger hedger = hedger(call, executor, 100, 10);
+
+        // act
+        warmUp(hedger);
+
+        // assert -- the calls take microseconds, so the minimum applies
+        assertThat(hedger.getDelayNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void call_slowCall_answeredByHedge() {
+        // arrange
+        PrivateServiceHedger hedger = hedger(call, executor, 5, 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hedger.bindTo(registry);
+        warmUp(hedger);
+        slowThread = Thread.currentThread();
+
+        // act
+        long start = System.nanoTime();
+        Message message = hedger.call();
+        long elapsed = System.nanoTime() - start;
+
+        // assert -- answered by the hedge, which aborted the primary
+        assertThat(message.getText()).isEqualTo("message " + calls.get());
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(registry.get("private.service.hedge.requests").tag("result", "sent")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("private.service.hedge.wins").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void call_noBudget_notHedged() throws InterruptedException {
+        // arrange
+        PrivateServiceHedger hedger = hedger(call, executor, 5, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hedger.bindTo(registry);
+        warmUp(hedger);
+        int warmUpCalls = calls.get();
+
+        // act
+        Thread caller = new Thread(hedger::call);
+        slowThread = caller;
+        caller.start();
+        awaitHedgeTimer();
+        release.countDown();
+        caller.join();
+
+        // assert -- only the primary call was made
+        assertThat(calls.get()).isEqualTo(warmUpCalls + 1);
+        assertThat(submitted.get()).isEqualTo(0);
+        assertThat(registry.get("private.service.hedge.requests").tag("result", "sent")
+                .functionCounter().count()).isEqualTo(0.0);
+        assertThat(registry.get("private.service.hedge.requests").tag("result", "over-budget")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void call_answeredInTime_submitsNothing() {
+        // arrange -- a delay no call (or GC pause) reaches
+        PrivateServiceHedger hedger = hedger(call, executor, 100, 10);
+        warmUp(hedger);
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            hedger.call();
+        }
+
+        // assert -- the hedge timers were cancelled rather than run and handed to the executor
+        assertThat(hedger.getDelayNanos()).isGreaterThan(0L);
+        assertThat(hedgeTimerRan.getCount()).isEqualTo(1L);
+        assertThat(submitted.get()).isEqualTo(0);
+        assertThat(calls.get()).isEqualTo(228);
+    }
+
+    @Test
+    public void call_hedgeRejected_counted() throws InterruptedException {
+        // arrange
+        PrivateServiceHedger hedger = hedger(call, runnable -> {
+            throw new RejectedExecutionException("Executor is full");
+        }, 5, 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hedger.bindTo(registry);
+        warmUp(hedger);
+
+        // act
+        Thread caller = new Thread(hedger::call);
+        slowThread = caller;
+        caller.start();
+        awaitHedgeTimer();
+        release.countDown();
+        caller.join();
+
+        // assert -- the primary still answers
+        assertThat(registry.get("private.service.hedge.requests").tag("result", "rejected")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("private.service.hedge.requests").tag("result", "sent")
+                .functionCounter().count()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void call_failedPrimaryAndHedge_throws() {
+        // arrange
+        PrivateServiceHedger hedger = hedger(() -> {
+            throw new IllegalStateException("private-service is down");
+        }, executor, 5, 10);
+
+        // act and assert
+        IllegalStateException e = assertThrows(IllegalStateException.class, hedger::call);
+        assertThat(e.getMessage()).isEqualTo("private-service is down");
+    }
+
+    @Test
+    public void constructor_invalidSettings_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new PrivateServiceHedger(call, executor, 100, 5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PrivateServiceHedger(call, executor, 95, 5, 101));
+    }
+
+    @Test
+    public void call_failedCalls_raiseDelay() {
+        // arrange -- calls failing after 20ms, like timeouts
+        PrivateServiceHedger hedger = hedger(() -> {
+            sleep(20);
+            throw new IllegalStateException("Read timed out");
+        }, executor, 5, 0);
+
+        // act
+        for (int i = 0; i < 128; i++) {
+            assertThrows(IllegalStateException.class, hedger::call);
+        }
+
+        // assert -- the failures' latencies set the delay, not just successful calls'
+        assertThat(hedger.getDelayNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    // DOC - hedges after the p95 of recent calls, but at least minDelayMillis; the
+    //       timer counts down hedgeTimerRan once a hedge timer has run
+    private PrivateServiceHedger hedger(Supplier<Message> call, Executor executor, long minDelayMillis, int budgetPercent) {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1) {
+            @Override
+            protected void afterExecute(Runnable runnable, Throwable t) {
+                hedgeTimerRan.countDown();
+            }
+        };
+        PrivateServiceHedger hedger = new PrivateServiceHedger(call, executor, 95, minDelayMillis, budgetPercent, timer);
+        hedgers.add(hedger);
+        return hedger;
+    }
+
+    private void awaitHedgeTimer() throws InterruptedException {
+        assertThat(hedgeTimerRan.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void warmUp(PrivateServiceHedger hedger) {
+        for (int i = 0; i < 128; i++) {
+            hedger.call();
+        }
+    }
+}
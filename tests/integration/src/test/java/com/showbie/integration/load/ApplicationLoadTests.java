@@ -0,0 +1,175 @@
+package com.showbie.integration.load;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Load test: boots private-service and public-service locally on random ports,
+ * drives open-loop traffic at public-service with a mix of public, private, both
+ * and invalid tokens, and fails if the response times (corrected for coordinated
+ * omission) or error rate exceed their budgets.
+ * <p>
+ * Run with {@code ./gradlew tests:integration:load}, configured with {@code -Pload.*}
+ * properties, e.g. {@code -Pload.rate=500 -Pload.budget.p99=100}. Latency budgets
+ * are in milliseconds; {@code 0} disables one. The report is logged, and the
+ * percentile distributions and service logs are written to {@code load.report-dir}.
+ */
+@SpringBootTest
+class ApplicationLoadTests {
+	Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Value("${load.private-service.classpath}")
+	private String privateServiceClasspath;
+
+	@Value("${load.public-service.classpath}")
+	private String publicServiceClasspath;
+
+	// DOC - extra arguments for both services, e.g. --spring.threads.virtual.enabled=true
+	@Value("${load.service-args:}")
+	private String serviceArgs;
+
+	@Value("${load.report-dir:build/reports/load}")
+	private String reportDir;
+
+	@Value("${load.rate:100}")
+	private double rate;
+
+	@Value("${load.warmup:10}")
+	private long warmupSeconds;
+
+	@Value("${load.duration:30}")
+	private long durationSeconds;
+
+	@Value("${load.timeout:5000}")
+	private long timeoutMillis;
+
+	@Value("${load.mix.public:40}")
+	private int publicWeight;
+
+	@Value("${load.mix.private:25}")
+	private int privateWeight;
+
+	@Value("${load.mix.both:25}")
+	private int bothWeight;
+
+	@Value("${load.mix.invalid:10}")
+	private int invalidWeight;
+
+	@Value("${load.budget.p50:50}")
+	private double p50Budget;
+
+	@Value("${load.budget.p99:250}")
+	private double p99Budget;
+
+	@Value("${load.budget.p999:1000}")
+	private double p999Budget;
+
+	@Value("${load.budget.error-rate:0.001}")
+	private double errorRateBudget;
+
+	@Value("${auth.token.key}")
+	private String authTokenSigningKey;
+
+	private ServiceProcess privateService;
+	private ServiceProcess publicService;
+	private int publicServicePort;
+
+	@BeforeEach
+	void startServices() throws Exception {
+		Path logDir = Files.createDirectories(Paths.get(reportDir));
+		String privateServiceKey = UUID.randomUUID().toString();
+		List<String> args = serviceArgs.isEmpty() ? Collections.emptyList() : Arrays.asList(serviceArgs.trim().split("\\s+"));
+
+		int privateServicePort = ServiceProcess.freePort();
+		List<String> privateArgs = new ArrayList<>(args);
+		privateArgs.add("--auth.token.key=" + privateServiceKey);
+		privateService = ServiceProcess.start("private-service", privateServiceClasspath, privateServicePort, logDir, privateArgs);
+
+		publicServicePort = ServiceProcess.freePort();
+		List<String> publicArgs = new ArrayList<>(args);
+		publicArgs.add("--auth.token.key=" + authTokenSigningKey);
+		publicArgs.add("--private.service.auth.token.key=" + privateServiceKey);
+		publicArgs.add("--private.service.host.uri=http://localhost:" + privateServicePort + "/message");
+		publicArgs.add("--private.service.messages.uri=http://localhost:" + privateServicePort + "/messages");
+		publicService = ServiceProcess.start("public-service", publicServiceClasspath, publicServicePort, logDir, publicArgs);
+
+		privateService.awaitReady(Duration.ofSeconds(60));
+		publicService.awaitReady(Duration.ofSeconds(60));
+	}
+
+	@AfterEach
+	void stopServices() throws InterruptedException {
+		if (publicService != null) {
+			publicService.close();
+		}
+		if (privateService != null) {
+			privateService.close();
+		}
+	}
+
+	@Test
+	void should_meet_latency_budgets_under_load() throws Exception {
+		// arrange
+		long tokenLifetime = Duration.ofSeconds(warmupSeconds + durationSeconds).plusMinutes(5).toMillis();
+		Map<RequestType, String> tokens = new EnumMap<>(RequestType.class);
+		for (RequestType type : RequestType.values()) {
+			String key = type == RequestType.INVALID ? authTokenSigningKey + "-wrong" : authTokenSigningKey;
+			tokens.put(type, generateToken(key, tokenLifetime, type.getScopes()));
+		}
+		Map<RequestType, Integer> weights = new EnumMap<>(RequestType.class);
+		weights.put(RequestType.PUBLIC, publicWeight);
+		weights.put(RequestType.PRIVATE, privateWeight);
+		weights.put(RequestType.BOTH, bothWeight);
+		weights.put(RequestType.INVALID, invalidWeight);
+		LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + publicServicePort + "/message"),
+				rate, Duration.ofMillis(timeoutMillis), tokens, weights);
+
+		// act
+		logger.info("Sending {} requests/s for {}s (after {}s warmup)", rate, durationSeconds, warmupSeconds);
+		LoadReport report = generator.run(Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(durationSeconds));
+		logger.info("Load test results (response times from scheduled send):{}", report.format());
+		report.writeHistograms(Paths.get(reportDir));
+
+		// assert
+		LoadReport.Results overall = report.getOverall();
+		assertThat(overall.getCount() > 0).isTrue();
+		assertThat((double) overall.getErrors() / overall.getCount()).as("error rate").isLessThanOrEqualTo(errorRateBudget);
+		assertWithinBudget("p50", overall.getResponseTimeMillis(50), p50Budget);
+		assertWithinBudget("p99", overall.getResponseTimeMillis(99), p99Budget);
+		assertWithinBudget("p99.9", overall.getResponseTimeMillis(99.9), p999Budget);
+	}
+
+	private static void assertWithinBudget(String percentile, double millis, double budget) {
+		if (budget > 0) {
+			assertThat(millis).as("%s response time (ms)", percentile).isLessThanOrEqualTo(budget);
+		}
+	}
+
+	private static String generateToken(String key, long lifetime, String... scope) {
+		Map<String, Object> claims = new HashMap<>();
+		claims.put("scopes", Arrays.asList(scope));
+		long nowMillis = System.currentTimeMillis();
+		return Jwts.builder()
+				.setClaims(claims)
+				.setIssuedAt(new Date(nowMillis))
+				.setExpiration(new Date(nowMillis + lifetime))
+				.signWith(SignatureAlgorithm.HS256, key.getBytes())
+				.compact();
+	}
+}
@@ -0,0 +1,106 @@
+package com.showbie.integration.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load: requests are sent on a fixed schedule at the configured rate
+ * whether or not earlier ones have completed, as independent clients would, so a
+ * slow server is not rewarded with fewer requests. Latency is measured from each
+ * request's scheduled send time (see {@link LoadReport}).
+ */
+final class LoadGenerator {
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.build();
+	private final AtomicLong inFlight = new AtomicLong();
+
+	private final URI uri;
+	private final double rate;
+	private final Duration timeout;
+	private final Map<RequestType, String> tokens;
+	private final RequestType[] mix;
+	private final Random random = new Random(42); // DOC - the same mix of requests on every run
+
+	/**
+	 * @param uri     Resource to request.
+	 * @param rate    Requests per second.
+	 * @param timeout Request timeout; a timed out request is recorded as an error.
+	 * @param tokens  Bearer token for each request type.
+	 * @param weights Relative weight of each request type in the mix.
+	 */
+	LoadGenerator(URI uri, double rate, Duration timeout, Map<RequestType, String> tokens, Map<RequestType, Integer> weights) {
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("Load rate must be positive");
+		}
+		this.uri = uri;
+		this.rate = rate;
+		this.timeout = timeout;
+		this.tokens = new EnumMap<>(tokens);
+		this.mix = weights.entrySet().stream()
+				.flatMap(weight -> Collections.nCopies(Math.max(0, weight.getValue()), weight.getKey()).stream())
+				.toArray(RequestType[]::new);
+		if (mix.length == 0) {
+			throw new IllegalArgumentException("Load mix must include at least one request type");
+		}
+	}
+
+	/**
+	 * Send requests for the warmup period (not recorded) and then the measured
+	 * period, and wait for the measured requests to complete.
+	 */
+	LoadReport run(Duration warmup, Duration duration) throws InterruptedException {
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+		LoadReport report = new LoadReport(duration.toNanos());
+
+		for (long i = 0; ; i++) {
+			long intended = start + i * intervalNanos;
+			if (intended >= end) {
+				break;
+			}
+			for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+				LockSupport.parkNanos(wait);
+			}
+			send(mix[random.nextInt(mix.length)], intended, intended >= measureFrom ? report : null);
+		}
+
+		// DOC - every request completes (or fails) within its timeout
+		long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+		while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		return report;
+	}
+
+	private void send(RequestType type, long intended, LoadReport report) {
+		HttpRequest request = HttpRequest.newBuilder(uri)
+				.timeout(timeout)
+				.header("Accept", "application/json")
+				.header("Authorization", "Bearer " + tokens.get(type))
+				.GET()
+				.build();
+		inFlight.incrementAndGet();
+		long sent = System.nanoTime();
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, error) -> {
+					long completed = System.nanoTime();
+					if (report != null) {
+						report.record(type, intended, sent, completed, response != null ? response.statusCode() : -1);
+					}
+					inFlight.decrementAndGet();
+				});
+	}
+}
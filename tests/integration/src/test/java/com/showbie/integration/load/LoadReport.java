@@ -0,0 +1,125 @@
+package com.showbie.integration.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured requests of a load run, per
+ * {@link RequestType} and overall.
+ * <p>
+ * Each request is recorded twice (in microseconds): its <em>response time</em>
+ * from when it was scheduled to be sent, which includes any time spent waiting
+ * behind a stalled generator or server and so is corrected for coordinated
+ * omission, and its <em>service time</em> from when it was actually sent.
+ */
+final class LoadReport {
+	private final Map<RequestType, Results> byType = new EnumMap<>(RequestType.class);
+	private final Results overall = new Results();
+	private final long durationNanos;
+
+	LoadReport(long durationNanos) {
+		this.durationNanos = durationNanos;
+		for (RequestType type : RequestType.values()) {
+			byType.put(type, new Results());
+		}
+	}
+
+	/**
+	 * @param status HTTP status, or {@code -1} if the request failed (e.g. timed out).
+	 */
+	void record(RequestType type, long intendedNanos, long sentNanos, long completedNanos, int status) {
+		long responseMicros = TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos);
+		long serviceMicros = TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos);
+		boolean expected = status == type.getExpectedStatus();
+		byType.get(type).record(responseMicros, serviceMicros, expected);
+		overall.record(responseMicros, serviceMicros, expected);
+	}
+
+	Results getOverall() {
+		return overall;
+	}
+
+	/**
+	 * @return Completed requests per second.
+	 */
+	double getThroughput() {
+		return overall.getCount() * 1e9 / durationNanos;
+	}
+
+	/**
+	 * @return A table of the results, one row per request type.
+	 */
+	String format() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+				"%nThroughput %.1f requests/s (%.1f/s as expected)%n%-8s %8s %8s %10s %10s %10s %10s %14s%n",
+				getThroughput(), (overall.getCount() - overall.getErrors()) * 1e9 / durationNanos, "type", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "p99 svc ms"));
+		byType.forEach((type, results) -> table.append(results.format(type.name())));
+		table.append(overall.format("ALL"));
+		return table.toString();
+	}
+
+	/**
+	 * Write the overall response and service time percentile distributions
+	 * ({@code .hgrm}, in milliseconds) for plotting.
+	 */
+	void writeHistograms(Path directory) throws IOException {
+		write(overall.responseTimes, directory.resolve("response-time.hgrm"));
+		write(overall.serviceTimes, directory.resolve("service-time.hgrm"));
+	}
+
+	private static void write(Histogram histogram, Path file) throws IOException {
+		try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()))) {
+			histogram.outputPercentileDistribution(out, 1000.0);
+		}
+	}
+
+	/**
+	 * Results of one kind of request.
+	 */
+	static final class Results {
+		private final Histogram responseTimes = new ConcurrentHistogram(3);
+		private final Histogram serviceTimes = new ConcurrentHistogram(3);
+		private final LongAdder errors = new LongAdder();
+
+		private void record(long responseMicros, long serviceMicros, boolean expected) {
+			responseTimes.recordValue(Math.max(0, responseMicros));
+			serviceTimes.recordValue(Math.max(0, serviceMicros));
+			if (!expected) {
+				errors.increment();
+			}
+		}
+
+		long getCount() {
+			return responseTimes.getTotalCount();
+		}
+
+		long getErrors() {
+			return errors.sum();
+		}
+
+		/**
+		 * @return Response time (corrected for coordinated omission) at a percentile, in milliseconds.
+		 */
+		double getResponseTimeMillis(double percentile) {
+			return responseTimes.getValueAtPercentile(percentile) / 1000.0;
+		}
+
+		private String format(String name) {
+			return String.format(Locale.ROOT, "%-8s %8d %8d %10.2f %10.2f %10.2f %10.2f %14.2f%n",
+					name, getCount(), getErrors(),
+					getResponseTimeMillis(50), getResponseTimeMillis(99), getResponseTimeMillis(99.9),
+					responseTimes.getMaxValue() / 1000.0,
+					serviceTimes.getValueAtPercentile(99) / 1000.0);
+		}
+	}
+}
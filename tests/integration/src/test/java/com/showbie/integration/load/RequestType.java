@@ -0,0 +1,27 @@
+package com.showbie.integration.load;
+
+/**
+ * The kinds of request in the load mix, by the scopes of their token.
+ */
+enum RequestType {
+	PUBLIC(200, "PUBLIC_SERVICE"),
+	PRIVATE(200, "PRIVATE_SERVICE"),
+	BOTH(200, "PUBLIC_SERVICE", "PRIVATE_SERVICE"),
+	INVALID(401, "PUBLIC_SERVICE"); // signed with the wrong key
+
+	private final int expectedStatus;
+	private final String[] scopes;
+
+	RequestType(int expectedStatus, String... scopes) {
+		this.expectedStatus = expectedStatus;
+		this.scopes = scopes;
+	}
+
+	int getExpectedStatus() {
+		return expectedStatus;
+	}
+
+	String[] getScopes() {
+		return scopes;
+	}
+}
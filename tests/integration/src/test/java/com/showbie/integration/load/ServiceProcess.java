@@ -0,0 +1,100 @@
+package com.showbie.integration.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service started in its own JVM, from its runtime classpath, on a given port.
+ * <p>
+ * Services run out of process both because they share a main class and
+ * configuration file names, and so that the load generator does not compete with
+ * them for the same heap and JIT.
+ */
+final class ServiceProcess implements AutoCloseable {
+	private static final String MAIN_CLASS = "com.showbie.Application";
+
+	Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final String name;
+	private final int port;
+	private final Process process;
+
+	private ServiceProcess(String name, int port, Process process) {
+		this.name = name;
+		this.port = port;
+		this.process = process;
+	}
+
+	/**
+	 * Start a service; its output goes to {@code <name>.log} in the log directory.
+	 *
+	 * @param name      Service name, for logging.
+	 * @param classpath Service runtime classpath.
+	 * @param port      Port for the service to listen on.
+	 * @param logDir    Directory for the service's output.
+	 * @param args      Service (Spring) arguments, e.g. {@code --auth.token.key=...}.
+	 */
+	static ServiceProcess start(String name, String classpath, int port, Path logDir, List<String> args) throws IOException {
+		List<String> command = new ArrayList<>(Arrays.asList(
+				Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", classpath,
+				MAIN_CLASS,
+				"--server.port=" + port));
+		command.addAll(args);
+
+		Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(logDir.resolve(name + ".log").toFile())
+				.start();
+		return new ServiceProcess(name, port, process);
+	}
+
+	/**
+	 * @return A port that was free when asked.
+	 */
+	static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * Wait until the service accepts connections.
+	 */
+	void awaitReady(Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException(name + " exited with " + process.exitValue() + " during startup");
+			}
+			try (Socket socket = new Socket()) {
+				socket.connect(new InetSocketAddress("localhost", port), 500);
+				logger.info("{} is listening on port {}", name, port);
+				return;
+			} catch (IOException e) {
+				Thread.sleep(250);
+			}
+		}
+		throw new IllegalStateException(name + " did not start within " + timeout);
+	}
+
+	@Override
+	public void close() throws InterruptedException {
+		process.destroy();
+		if (!process.waitFor(10, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+		}
+	}
+}